@@ -0,0 +1,134 @@
+package dk.dtu.compute.se.pisd.roborally.benchmark;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the hot path of the activation phase: executing all
+ * registers of all players, and moving robots forward while pushing a
+ * chain of other robots.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActivationBenchmark {
+
+    /**
+     * A board with some players, which program their registers with the
+     * cards dealt to them. The cards are dealt by a seeded game controller,
+     * so that every trial executes the same programs; interactive cards
+     * always turn left, so that the activation never waits for a player.
+     */
+    @State(Scope.Thread)
+    public static class Programs {
+
+        @Param({"8", "32", "128"})
+        public int boardSize;
+
+        @Param({"2", "6"})
+        public int players;
+
+        Board board;
+
+        GameController gameController;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            board = new Board(boardSize, boardSize);
+            gameController = new GameController(board, 42);
+            gameController.setCommandHandler(Command.OPTION_LEFT_RIGHT, GameController::turnLeft);
+            for (int i = 0; i < players; i++) {
+                Player player = new Player(board, null, "Player " + i);
+                board.addPlayer(player);
+                player.setSpace(board.getSpace(i, i));
+                player.setHeading(Heading.values()[i % Heading.values().length]);
+            }
+            gameController.startProgrammingPhase();
+        }
+    }
+
+    /**
+     * A row of robots all heading east, the first of which pushes all the
+     * others when moving forward. Since the board wraps around, the chain can
+     * be pushed forever.
+     */
+    @State(Scope.Thread)
+    public static class PushChain {
+
+        @Param({"1", "4", "16"})
+        public int chainLength;
+
+        Board board;
+
+        GameController gameController;
+
+        Player pusher;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            board = new Board(32, 8);
+            gameController = new GameController(board);
+            for (int i = 0; i < chainLength; i++) {
+                Player player = new Player(board, null, "Player " + i);
+                board.addPlayer(player);
+                player.setSpace(board.getSpace(i, 0));
+                player.setHeading(Heading.EAST);
+            }
+            pusher = board.getPlayer(0);
+        }
+    }
+
+    /**
+     * Programs the registers of all players with the first cards of their
+     * hands and executes all registers (followed by the dealing of new cards
+     * for the next programming phase, which puts the programmed cards back
+     * on the discard piles).
+     *
+     * @param state the board and its players
+     * @return the board
+     */
+    @Benchmark
+    public Board executePrograms(Programs state) {
+        for (Player player : state.board.getPlayers()) {
+            for (int i = 0; i < Player.NO_REGISTERS; i++) {
+                state.gameController.moveCards(player.getCardField(i), player.getProgramField(i));
+            }
+        }
+        state.gameController.finishProgrammingPhase();
+        state.gameController.executePrograms();
+        return state.board;
+    }
+
+    /**
+     * Moves the first robot of the chain forward, pushing all other robots.
+     *
+     * @param state the chain of robots
+     * @return the pushing player
+     */
+    @Benchmark
+    public Player moveForwardPushChain(PushChain state) {
+        state.gameController.moveForward(state.pusher);
+        return state.pusher;
+    }
+
+}
@@ -0,0 +1,92 @@
+package dk.dtu.compute.se.pisd.roborally.benchmark;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import dk.dtu.compute.se.pisd.roborally.model.Space;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the queries on the board, which are used for every move
+ * of a robot: finding the neighbour of a space and checking for walls.
+ * Every invocation visits all spaces of the board.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({"8", "64", "256"})
+    public int boardSize;
+
+    private Board board;
+
+    private Space[] spaces;
+
+    private Player[] players;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        board = new Board(boardSize, boardSize);
+        spaces = new Space[boardSize * boardSize];
+        Heading[] headings = Heading.values();
+        for (int x = 0; x < boardSize; x++) {
+            for (int y = 0; y < boardSize; y++) {
+                Space space = board.getSpace(x, y);
+                // put a wall on every third space
+                if ((x + y) % 3 == 0) {
+                    space.addWall(headings[(x * 7 + y) % headings.length]);
+                }
+                spaces[x * boardSize + y] = space;
+            }
+        }
+        // one player for each heading; the players are not placed on the
+        // board since only their heading is relevant for the wall checks
+        players = new Player[headings.length];
+        for (int i = 0; i < headings.length; i++) {
+            players[i] = new Player(board, null, "Player " + i);
+            players[i].setHeading(headings[i]);
+        }
+    }
+
+    @Benchmark
+    public void getNeighbour(Blackhole blackhole) {
+        for (Space space : spaces) {
+            for (Heading heading : Heading.values()) {
+                blackhole.consume(board.getNeighbour(space, heading));
+            }
+        }
+    }
+
+    @Benchmark
+    public int hasCurrentWall() {
+        int walls = 0;
+        for (Space space : spaces) {
+            for (Player player : players) {
+                if (space.hasCurrentWall(player)) {
+                    walls++;
+                }
+            }
+        }
+        return walls;
+    }
+
+}
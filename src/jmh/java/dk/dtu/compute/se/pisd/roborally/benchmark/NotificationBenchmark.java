@@ -0,0 +1,81 @@
+package dk.dtu.compute.se.pisd.roborally.benchmark;
+
+import dk.dtu.compute.se.pisd.designpatterns.observer.Observer;
+import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for the cost of a change notification of a subject with
+ * different numbers of registered observers.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationBenchmark {
+
+    /**
+     * A subject, which notifies its observers on every change.
+     */
+    static class ChangingSubject extends Subject {
+
+        void change() {
+            notifyChange();
+        }
+    }
+
+    /**
+     * An observer, which just counts the updates.
+     */
+    static class CountingObserver implements Observer {
+
+        int updates;
+
+        @Override
+        public void update(Subject subject) {
+            updates++;
+        }
+    }
+
+    @Param({"0", "1", "16"})
+    public int observers;
+
+    private ChangingSubject subject;
+
+    // the observers need to be referenced here, since subjects reference
+    // their observers only weakly
+    private CountingObserver[] registered;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        subject = new ChangingSubject();
+        registered = new CountingObserver[observers];
+        for (int i = 0; i < observers; i++) {
+            registered[i] = new CountingObserver();
+            subject.attach(registered[i]);
+        }
+    }
+
+    @Benchmark
+    public Subject notifyChange() {
+        subject.change();
+        return subject;
+    }
+
+}
@@ -21,29 +21,90 @@
  */
 package dk.dtu.compute.se.pisd.designpatterns.observer;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Set;
-import java.util.WeakHashMap;
-
-// import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * This is the subject of the observer design pattern roughly following
- * the definition of the GoF.
+ * the definition of the GoF.<p></p>
+ *
+ * Changes of subjects can be batched: between {@link #beginBatch()} and
+ * {@link #endBatch()}, the observers are not notified immediately; instead,
+ * every changed subject is notified only once at the end of the batch,
+ * no matter how often it changed. Batches are maintained per thread.<p></p>
+ *
+ * The observers are kept in an immutable array, which is replaced (copy on
+ * write) when observers are attached or detached. Notifying the observers
+ * iterates over the current array, which is safe from any thread and does
+ * not allocate any objects.
  * 
  * @author Ekkart Kindler, ekki@dtu.dk
  *
  */
 public abstract class Subject {
+
+	/**
+	 * The state of the batch of the current thread: the nesting depth
+	 * and the subjects which changed in the batch (in the order of their
+	 * first change, and as a set for checking whether a subject changed
+	 * in the batch already).
+	 */
+	private static final class Batch {
+
+		private int depth;
+
+		private final ArrayDeque<Subject> changed = new ArrayDeque<>();
+
+		private final Set<Subject> changedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	}
+
+	private static final ThreadLocal<Batch> batch = ThreadLocal.withInitial(Batch::new);
 	
-	private Set<Observer> observers =
-			Collections.newSetFromMap(new WeakHashMap<>());
+
+	/**
+	 * A weak reference to an observer of a subject, which knows the
+	 * subject, so that it can be removed from the subject once the
+	 * observer was garbage collected.
+	 */
+	private static final class ObserverReference extends WeakReference<Observer> {
+
+		private final Subject subject;
+
+		private ObserverReference(Subject subject, Observer observer) {
+			super(observer, staleObservers);
+			this.subject = subject;
+		}
+
+	}
+
+	private static final ObserverReference[] NO_OBSERVERS = new ObserverReference[0];
+
+	private static final AtomicReferenceFieldUpdater<Subject, ObserverReference[]> observersUpdater =
+			AtomicReferenceFieldUpdater.newUpdater(Subject.class, ObserverReference[].class, "observers");
+
+	private static final ReferenceQueue<Observer> staleObservers = new ReferenceQueue<>();
+
+	static {
+		Thread cleaner = new Thread(Subject::removeStaleObservers, "observer-cleaner");
+		cleaner.setDaemon(true);
+		cleaner.start();
+	}
+
+	private volatile ObserverReference[] observers = NO_OBSERVERS;
 	// Note: In JavaFX, the views do not have a way to know when they are
 	// removed from the window, and therefore cannot always unregister
 	// themselves from subjects they observe before the views become garbage.
-	// Therefore, the set of observers are maintained as a weak set, so
-	// that these observers are implicitly removed, when the observers
-	// would be garbage (if not for these references)!
+	// Therefore, the observers are referenced weakly only, so that these
+	// observers are implicitly removed, when the observers would be garbage
+	// (if not for these references)! The references of observers which
+	// were garbage collected are removed by a background thread.
 
 	/**
 	 * This methods allows an observer to register with the subject
@@ -52,7 +113,23 @@ public abstract class Subject {
 	 * @param observer the observer who registers
 	 */
 	final public void attach(Observer observer) {
-		observers.add(observer);
+		if (observer == null) {
+			return;
+		}
+		ObserverReference reference = null;
+		ObserverReference[] current;
+		ObserverReference[] updated;
+		do {
+			current = observers;
+			if (indexOf(current, observer) >= 0) {
+				return;
+			}
+			if (reference == null) {
+				reference = new ObserverReference(this, observer);
+			}
+			updated = Arrays.copyOf(current, current.length + 1);
+			updated[current.length] = reference;
+		} while (!observersUpdater.compareAndSet(this, current, updated));
 	}
 	
 	/**
@@ -62,17 +139,137 @@ public abstract class Subject {
 	 * @param observer the observer who unregisters
 	 */
 	final public void detach(Observer observer) {
-		observers.remove(observer);
+		ObserverReference[] current;
+		do {
+			current = observers;
+			int index = indexOf(current, observer);
+			if (index < 0) {
+				return;
+			}
+			if (remove(current, index)) {
+				current[index].clear();
+				return;
+			}
+		} while (true);
+	}
+
+	private static int indexOf(ObserverReference[] references, Observer observer) {
+		for (int i = 0; i < references.length; i++) {
+			if (references[i].get() == observer) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Removes the reference at the given index from the given array of
+	 * references, provided that the array still is the current one.
+	 *
+	 * @return true if the reference was removed
+	 */
+	private boolean remove(ObserverReference[] current, int index) {
+		ObserverReference[] updated;
+		if (current.length == 1) {
+			updated = NO_OBSERVERS;
+		} else {
+			updated = new ObserverReference[current.length - 1];
+			System.arraycopy(current, 0, updated, 0, index);
+			System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+		}
+		return observersUpdater.compareAndSet(this, current, updated);
+	}
+
+	/**
+	 * Removes the given (cleared) reference from the observers of its subject.
+	 */
+	private static void removeStale(ObserverReference reference) {
+		Subject subject = reference.subject;
+		ObserverReference[] current;
+		do {
+			current = subject.observers;
+			int index = -1;
+			for (int i = 0; i < current.length; i++) {
+				if (current[i] == reference) {
+					index = i;
+					break;
+				}
+			}
+			if (index < 0) {
+				return;
+			}
+			if (subject.remove(current, index)) {
+				return;
+			}
+		} while (true);
+	}
+
+	private static void removeStaleObservers() {
+		while (true) {
+			try {
+				removeStale((ObserverReference) staleObservers.remove());
+			} catch (InterruptedException e) {
+				// the cleaner is a daemon thread, which runs as long as the VM
+			}
+		}
 	}
 	
 	/**
 	 * This method must be called from methods of concrete subclasses
 	 * of this subject class whenever its state is changed (in a way
-	 * relevant for the observer).
+	 * relevant for the observer). Within a batch, the observers are
+	 * notified at the end of the batch only.
 	 */
 	final protected void notifyChange() {
-		for (Observer observer: observers) {
-			observer.update(this);
+		Batch current = batch.get();
+		if (current.depth > 0) {
+			if (current.changedSet.add(this)) {
+				current.changed.add(this);
+			}
+		} else {
+			notifyObservers();
+		}
+	}
+
+	private void notifyObservers() {
+		for (ObserverReference reference: observers) {
+			Observer observer = reference.get();
+			if (observer != null) {
+				observer.update(this);
+			}
+		}
+	}
+
+	/**
+	 * Starts a batch of changes in the current thread. Until the matching
+	 * call of {@link #endBatch()}, observers are not notified of changes.
+	 * Batches may be nested; the observers are notified at the end of the
+	 * outermost batch. Every call of this method must be matched by a call
+	 * of {@link #endBatch()} (typically in a finally block).
+	 */
+	public static void beginBatch() {
+		batch.get().depth++;
+	}
+
+	/**
+	 * Ends a batch of changes in the current thread. At the end of the
+	 * outermost batch, the observers of every subject which changed in the
+	 * batch are notified exactly once.
+	 */
+	public static void endBatch() {
+		Batch current = batch.get();
+		if (current.depth == 0) {
+			throw new IllegalStateException("endBatch() called without a matching beginBatch()");
+		}
+		if (--current.depth == 0) {
+			// Observers may change subjects again, while they are notified;
+			// these changes are notified immediately (or at the end of a
+			// new batch), but every subject is notified only once here.
+			Subject subject;
+			while ((subject = current.changed.poll()) != null) {
+				current.changedSet.remove(subject);
+				subject.notifyObservers();
+			}
 		}
 	}
 
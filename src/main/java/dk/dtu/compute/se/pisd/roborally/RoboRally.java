@@ -23,6 +23,8 @@ package dk.dtu.compute.se.pisd.roborally;
 
 import dk.dtu.compute.se.pisd.roborally.controller.AppController;
 import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.dal.RepositoryAccess;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.LoadBoard;
 import dk.dtu.compute.se.pisd.roborally.view.BoardView;
 import dk.dtu.compute.se.pisd.roborally.view.RoboRallyMenuBar;
 import javafx.application.Application;
@@ -54,6 +56,11 @@ public class RoboRally extends Application {
     @Override
     public void init() throws Exception {
         super.init();
+        // read the boards before the first game is created
+        LoadBoard.preloadBoards(LoadBoard.BUNDLED_BOARDS);
+        // connect to the repository here (outside the JavaFX application
+        // thread), so that the user interface never waits for it
+        RepositoryAccess.getRepository();
     }
 
     /**
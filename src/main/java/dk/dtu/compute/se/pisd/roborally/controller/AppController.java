@@ -29,22 +29,30 @@ import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
 
 import dk.dtu.compute.se.pisd.roborally.RoboRally;
 
+import dk.dtu.compute.se.pisd.roborally.dal.GameInDB;
+import dk.dtu.compute.se.pisd.roborally.dal.IRepository;
 import dk.dtu.compute.se.pisd.roborally.dal.RepositoryAccess;
+import dk.dtu.compute.se.pisd.roborally.dal.SaveQueue;
 import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Phase;
 import dk.dtu.compute.se.pisd.roborally.model.Player;
 import dk.dtu.compute.se.pisd.roborally.fileaccess.LoadBoard;
+import dk.dtu.compute.se.pisd.roborally.view.LoadGameDialog;
 
 import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.ChoiceDialog;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * AppController class contains methods for controlling the Roborally app
@@ -64,6 +72,26 @@ public class AppController implements Observer {
 
     private GameController gameController;
 
+    private boolean winnerAnnounced;
+
+    /**
+     * The maximum time in milliseconds, before a saved game is written
+     * to the repository.
+     */
+    private static final long SAVE_DELAY = 200;
+
+    private SaveQueue saveQueue;
+
+    /**
+     * The thread, on which the repository is accessed, so that the user
+     * interface never waits for the repository.
+     */
+    private final ExecutorService background = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "repository");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     /**
      * Constructor of the AppController class
      * @param roboRally
@@ -113,6 +141,8 @@ public class AppController implements Observer {
 
             //board = BoardFactory.getInstance().createBoard("Game");
             gameController = new GameController(board);
+            winnerAnnounced = false;
+            board.attach(this);
 
             int no = result.get();
             for (int i = 0; i < no; i++) {
@@ -126,33 +156,87 @@ public class AppController implements Observer {
             gameController.startProgrammingPhase();
 
             roboRally.createBoardView(gameController);
-            RepositoryAccess.getRepository().createGameInDB(board);
+            getSaveQueue().save(board);
         }
     }
 
     /**
-     * Save game
+     * Save game. The game is written to the repository in the background,
+     * so that the user interface is not blocked.
      */
-    public static void saveGame() {
-        RepositoryAccess.getRepository().updateGameInDB(GameController.board);
+    public void saveGame() {
+        if (gameController != null) {
+            getSaveQueue().save(gameController.board);
+        }
     }
 
-    public void loadGame() {
+    private SaveQueue getSaveQueue() {
+        if (saveQueue == null) {
+            // the repository was created when the application was started
+            // (see RoboRally.init()), so this does not access the database
+            saveQueue = new SaveQueue(RepositoryAccess.getRepository(), SAVE_DELAY, Platform::runLater);
+            saveQueue.setFailureListener((game, failure) ->
+                    showError("Game not saved", "The game could not be saved; it will be saved again later.\n" +
+                            failure.getMessage()));
+        }
+        return saveQueue;
+    }
 
-        ArrayList<Integer> gameIds = RepositoryAccess.getRepository().getGameIds();
+    /**
+     * Load a game. The repository is accessed in the background; the dialog
+     * for selecting the game is shown, once the games, which are still in
+     * the save queue, were written.
+     */
+    public void loadGame() {
+        if (saveQueue != null) {
+            SaveQueue queue = saveQueue;
+            CompletableFuture.runAsync(queue::flush, background)
+                    .thenRun(() -> Platform.runLater(this::showLoadGameDialog));
+        } else {
+            showLoadGameDialog();
+        }
+    }
 
-        ChoiceDialog<Integer> dialog = new ChoiceDialog<>(gameIds.get(0), gameIds);
-        dialog.setTitle("Saved games");
-        dialog.setHeaderText("Select saved game no.");
-        Optional<Integer> result = dialog.showAndWait();
-        if (!result.isEmpty()) {
-            int no = result.get();
-            Board board = RepositoryAccess.getRepository().loadGameFromDB(no);
-            gameController = new GameController(board);
-            roboRally.createBoardView(gameController);
+    private void showLoadGameDialog() {
+        IRepository repository = RepositoryAccess.getRepository();
+        LoadGameDialog dialog = new LoadGameDialog(repository, PLAYER_BOARDS, PLAYER_NUMBER_OPTIONS, background);
+        Optional<GameInDB> result = dialog.showAndWait();
+        if (result.isPresent()) {
+            int no = result.get().id;
+            Task<Board> load = new Task<>() {
+                @Override
+                protected Board call() {
+                    return repository.loadGameFromDB(no);
+                }
+            };
+            load.setOnSucceeded(event -> {
+                Board board = load.getValue();
+                if (board == null) {
+                    showError("Game not loaded", "Game " + no + " could not be loaded.");
+                    return;
+                }
+                if (gameController != null && !stopGame()) {
+                    return;
+                }
+                gameController = new GameController(board);
+                winnerAnnounced = false;
+                board.attach(this);
+                roboRally.createBoardView(gameController);
+            });
+            load.setOnFailed(event ->
+                    showError("Game not loaded", "Game " + no + " could not be loaded.\n" +
+                            load.getException().getMessage()));
+            background.execute(load);
         }
     }
 
+    private static void showError(String title, String message) {
+        Alert alert = new Alert(AlertType.ERROR);
+        alert.setTitle(title);
+        alert.setContentText(message);
+        alert.show();
+    }
+
     /**
      * Stop playing the current game, giving the user the option to save
      * the game or to cancel stopping the game. The method returns true
@@ -193,7 +277,16 @@ public class AppController implements Observer {
         // If the user did not cancel, the RoboRally application will exit
         // after the option to save the game
         if (gameController == null || stopGame()) {
-            Platform.exit();
+            // make sure that all saved games are written before exiting
+            if (saveQueue != null) {
+                SaveQueue queue = saveQueue;
+                background.execute(() -> {
+                    queue.close();
+                    Platform.runLater(Platform::exit);
+                });
+            } else {
+                Platform.exit();
+            }
         }
     }
 
@@ -207,12 +300,27 @@ public class AppController implements Observer {
 
 
     /**
+     * When the board of the current game reports that the game is finished,
+     * the game is saved and the winner is announced to the user.
      *
      * @param subject the subject which changed
      */
     @Override
     public void update(Subject subject) {
-        // XXX do nothing for now
+        if (gameController != null && subject == gameController.board &&
+                gameController.board.getPhase() == Phase.FINISHED && !winnerAnnounced) {
+            winnerAnnounced = true;
+            saveGame();
+            Player winner = gameController.board.getWinner();
+            // the dialog is shown later, so that the execution of the programs,
+            // which caused this update, is not blocked by the dialog
+            Platform.runLater(() -> {
+                Alert alert = new Alert(AlertType.INFORMATION);
+                alert.setTitle(winner.getName() + " has won the game");
+                alert.setContentText(winner.getName() +  " has won the game" + "\n Start new game by going to file -> new game");
+                alert.showAndWait();
+            });
+        }
     }
 
 }
@@ -99,39 +99,39 @@ public class BoardFactory {
         Space space = board.getSpace(0,0);
         ConveyorBelt action  = new ConveyorBelt();
         /*
-        space.getWalls().add(Heading.SOUTH);
+        space.addWall(Heading.SOUTH);
         action.setHeading(Heading.WEST);
-        space.getActions().add(action);
+        space.addAction(action);
 
 
         space = board.getSpace(1,0);
-        space.getWalls().add(Heading.NORTH);
+        space.addWall(Heading.NORTH);
         action  = new ConveyorBelt();
         action.setHeading(Heading.WEST);
-        space.getActions().add(action);
+        space.addAction(action);
 
         space = board.getSpace(1,1);
-        space.getWalls().add(Heading.WEST);
+        space.addWall(Heading.WEST);
         action  = new ConveyorBelt();
         action.setHeading(Heading.NORTH);
-        space.getActions().add(action);
+        space.addAction(action);
 
         space = board.getSpace(5,5);
-        space.getWalls().add(Heading.SOUTH);
+        space.addWall(Heading.SOUTH);
         action  = new ConveyorBelt();
         action.setHeading(Heading.WEST);
-        space.getActions().add(action);
+        space.addAction(action);
         */
         space = board.getSpace(6,5);
         action  = new ConveyorBelt();
         action.setHeading(Heading.WEST);
-        space.getActions().add(action);
+        space.addAction(action);
 
         space = board.getSpace(7,7);
-        space.getWalls().add(Heading.SOUTH);
-        space.getWalls().add(Heading.NORTH);
-        space.getWalls().add(Heading.EAST);
-        space.getWalls().add(Heading.WEST);
+        space.addWall(Heading.SOUTH);
+        space.addWall(Heading.NORTH);
+        space.addWall(Heading.EAST);
+        space.addWall(Heading.WEST);
 
         int[][] gearSpaceCoordinates = {
                 {5, 2},
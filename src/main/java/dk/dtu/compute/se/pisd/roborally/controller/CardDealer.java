@@ -0,0 +1,148 @@
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+import dk.dtu.compute.se.pisd.roborally.model.CardPile;
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.CommandCard;
+import dk.dtu.compute.se.pisd.roborally.model.CommandCardField;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Deals the command cards of a game from the decks of the players. Every
+ * game has its own random number generator, which is created from a seed;
+ * so games running in parallel do not share a generator, and a game with
+ * the same seed (and the same moves of the players) deals exactly the same
+ * cards again. A dealer is not thread safe; it must be used from the thread
+ * running the game only.
+ *
+ */
+public final class CardDealer {
+
+    private static final Command[] COMMANDS = Command.values();
+
+    /**
+     * The number of cards of every command in the starting deck of a player.
+     */
+    public static final int COPIES_PER_COMMAND = 4;
+
+    private final long seed;
+
+    /**
+     * The base of the seeds of the rounds, which is derived from the seed.
+     */
+    private final long roundSeed;
+
+    private SplittableRandom random;
+
+    /**
+     * Creates a dealer with the given seed.
+     *
+     * @param seed the seed of the random number generator
+     */
+    public CardDealer(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.roundSeed = new SplittableRandom(seed).nextLong();
+    }
+
+    /**
+     * Creates a dealer with a random seed.
+     */
+    public CardDealer() {
+        this(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Returns the seed of this dealer, with which the game can be replayed.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Starts dealing the cards of the given round. The random number
+     * generator of a round depends only on the seed and the round, so that
+     * a game continued from a snapshot at the beginning of a round deals the
+     * same cards as the original game.
+     *
+     * @param round the round
+     */
+    public void startRound(int round) {
+        random = new SplittableRandom(roundSeed + round);
+    }
+
+    /**
+     * Returns the card of a random command.
+     *
+     * @return the card
+     */
+    public CommandCard randomCard() {
+        return CommandCard.of(COMMANDS[random.nextInt(COMMANDS.length)]);
+    }
+
+    /**
+     * Deals a new hand to the given player. The cards in the registers and
+     * in the hand of the player are put on the discard pile first; then the
+     * {@link Player#NO_CARDS} card fields are filled with cards drawn from
+     * the player's deck. When the deck runs out, the discard pile is
+     * shuffled and becomes the new deck. A player who has no cards in the
+     * deck and the discard pile yet (a new player) gets a starting deck
+     * with {@link #COPIES_PER_COMMAND} cards of every command.
+     *
+     * @param player the player
+     */
+    public void deal(@NotNull Player player) {
+        CardPile deck = player.getCardDeck();
+        CardPile discardPile = player.getDiscardPile();
+        if (deck.isEmpty() && discardPile.isEmpty()) {
+            fillStartingDeck(deck);
+        }
+        discard(player.getProgram(), discardPile);
+        discard(player.getCards(), discardPile);
+        for (CommandCardField field : player.getCards()) {
+            if (deck.isEmpty()) {
+                if (discardPile.isEmpty()) {
+                    fillStartingDeck(deck);
+                } else {
+                    discardPile.moveAllTo(deck);
+                    deck.shuffle(random);
+                }
+            }
+            field.setCard(deck.pop());
+        }
+    }
+
+    private static void discard(CommandCardField[] fields, CardPile discardPile) {
+        for (CommandCardField field : fields) {
+            CommandCard card = field.getCard();
+            if (card != null) {
+                discardPile.push(card);
+                field.setCard(null);
+            }
+        }
+    }
+
+    private void fillStartingDeck(CardPile deck) {
+        for (Command command : COMMANDS) {
+            for (int i = 0; i < COPIES_PER_COMMAND; i++) {
+                deck.push(CommandCard.of(command));
+            }
+        }
+        deck.shuffle(random);
+    }
+
+    /**
+     * Shuffles the card deck of the given player.
+     *
+     * @param player the player
+     */
+    public void shuffle(@NotNull Player player) {
+        player.getCardDeck().shuffle(random);
+    }
+
+}
@@ -2,10 +2,6 @@ package dk.dtu.compute.se.pisd.roborally.controller;
 
 import dk.dtu.compute.se.pisd.roborally.model.Player;
 import dk.dtu.compute.se.pisd.roborally.model.Space;
-import javafx.scene.control.Alert;
-import javafx.scene.control.ButtonType;
-
-import java.util.Optional;
 
 public class CheckPointFieldAction extends FieldAction{
 
@@ -34,7 +30,8 @@ public class CheckPointFieldAction extends FieldAction{
     /**
      * This check if the player has reached a checkpoint by comparing the checkpoint ID
      * with the space the player has landed on.
-     * It also determines if all the checkpoints has been collected, and if so the game will end.
+     * It also determines if all the checkpoints has been collected, and if so the game will end;
+     * the winner is declared via the game controller, which informs the observers of the board.
      *
      * @param gameController the gameController of the respective game
      * @param space the space this action should be executed for
@@ -47,18 +44,11 @@ public class CheckPointFieldAction extends FieldAction{
            // System.out.println("CheckPointFieldAction player " + player.getName() + " reach check point " + checkPointFieldId);
             if((player.getCollectedTokens()) == checkPointFieldId) {
                 player.collectedCheckpoints(checkPointFieldId);
-                if (player.hasCollectedAllCheckpoints(GameController.getCollectedCheckpoints())) {
+                gameController.getEventListener().checkpointCollected(player, checkPointFieldId);
+                if (gameController.hasCollectedAllCheckpoints(player)) {
                    // System.out.println("player " + player.getName() + " has collected all checkpoints");
-                    AppController.saveGame();
-                    Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
-                    alert.setTitle(player.getName() + " has won the game");
-                    alert.setContentText(player.getName() +  " has won the game" + "\n Start new game by going to file -> new game");
-                    Optional<ButtonType> result = alert.showAndWait();
-
-                    if (!result.isPresent() || result.get() != ButtonType.OK) {
-
-                    }
-                    //System.exit(0);
+                    gameController.declareWinner(player);
+                    return true;
                 }
             }
         }
@@ -0,0 +1,23 @@
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Executes the command of a card in a register of a player. The handlers of
+ * a game are registered with its {@link GameController} (see
+ * {@link GameController#setCommandHandler(dk.dtu.compute.se.pisd.roborally.model.Command, CommandHandler)}).
+ *
+ */
+@FunctionalInterface
+public interface CommandHandler {
+
+    /**
+     * Executes the command for the given player.
+     *
+     * @param gameController the controller of the game
+     * @param player the player whose register is executed
+     */
+    void execute(@NotNull GameController gameController, @NotNull Player player);
+
+}
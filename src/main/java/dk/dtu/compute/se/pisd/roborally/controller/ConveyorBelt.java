@@ -22,6 +22,8 @@
 package dk.dtu.compute.se.pisd.roborally.controller;
 
 import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.BoardCore;
+import dk.dtu.compute.se.pisd.roborally.model.ConveyorGraph;
 import dk.dtu.compute.se.pisd.roborally.model.Heading;
 import dk.dtu.compute.se.pisd.roborally.model.Player;
 import dk.dtu.compute.se.pisd.roborally.model.Space;
@@ -45,10 +47,30 @@ public class ConveyorBelt extends FieldAction {
         this.heading = heading;
     }
 
+    /**
+     * Moves the robot on the given space one space along the belt, if the
+     * belt is not blocked and the next space is free. Note that the game
+     * controller does not execute this action for every robot separately;
+     * at the end of a register, it moves the robots on all belts at the same
+     * time (see {@link ConveyorGraph}).
+     *
+     * @param gameController the gameController of the respective game
+     * @param space the space this action should be executed for
+     * @return whether the robot was moved
+     */
     @Override
     public boolean doAction(@NotNull GameController gameController, @NotNull Space space) {
-        // TODO needs to be implemented
-        return false;
+        Player player = space.getPlayer();
+        if (player == null) {
+            return false;
+        }
+        Board board = space.board;
+        int target = board.getConveyorGraph().successor(space.cell);
+        if (target == BoardCore.NO_CELL || board.getCore().getOccupant(target) != BoardCore.NO_PLAYER) {
+            return false;
+        }
+        player.setSpace(board.getSpace(target));
+        return true;
     }
 
 }
@@ -24,6 +24,7 @@
  */
 package dk.dtu.compute.se.pisd.roborally.controller;
 
+import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
 import dk.dtu.compute.se.pisd.roborally.model.*;
 import org.jetbrains.annotations.NotNull;
 
@@ -37,43 +38,203 @@ import java.util.*;
  */
 public class GameController {
 
-    public static Board board;
+    final public Board board;
 
     /**
-     * Set of all the checkpoint that need to be collected to win.
+     * Set of all the checkpoint that need to be collected to win. The set
+     * belongs to this game only, so that several games can be run in the
+     * same JVM without affecting each other.
      */
-    private Set<Integer> allCheckpoints;
+    private final Set<Integer> allCheckpoints;
 
     /**
-     * List of players
+     * The occupied cells of the elements activated in the current stage, and
+     * the cells after the conveyor belts moved and the players on the cells;
+     * the arrays are allocated only once for all registers.
      */
-    private List<Player> players;
+    private int[] activeCells = new int[0];
+    private int[] activeTargets = new int[0];
+    private int[] activePlayers = new int[0];
 
     /**
-     * Static set the checkpoints that has been collected.
+     * The chain of robots pushed by the last move (see
+     * {@link #pushChain(int, Heading)}).
      */
-    private static Set<Integer> collectedCheckpoints = new HashSet<>();
+    private int[] pushedCells = new int[0];
+    private int[] pushedPlayers = new int[0];
+
+    private static final Command[] COMMANDS = Command.values();
+
+    /**
+     * The opcode of a register without a card.
+     */
+    private static final byte NO_OPCODE = -1;
+
+    /**
+     * The handlers of the commands, indexed by the ordinals of the commands.
+     */
+    private final CommandHandler[] handlers = new CommandHandler[COMMANDS.length];
+
+    /**
+     * The compiled programs of all players: the opcode of the card in
+     * register <code>step</code> of player <code>i</code> is at
+     * <code>step * noOfPlayers + i</code>; the opcode is the ordinal of the
+     * command, or {@link #NO_OPCODE}. Null, if the programs are not compiled.
+     */
+    private byte[] program;
+
+    private final CardDealer dealer;
 
     /**
-     * Retrieves the set of the collected checkpoints.
+     * The current round of the game; 0 before the first programming phase.
+     */
+    private int round;
+
+    private GameEventListener events = GameEventListener.NONE;
+
+    /**
+     * Retrieves the set of all the checkpoints on the board, which need
+     * to be collected to win the game.
      *
-     * @return
+     * @return the ids of all checkpoints of this game
      */
-    public static Set<Integer> getCollectedCheckpoints() {
-        return collectedCheckpoints;
+    public Set<Integer> getAllCheckpoints() {
+        return allCheckpoints;
     }
 
     /**
-     * Constructs a new GameController.
+     * Constructs a new GameController, which deals the cards with a random
+     * seed.
      *
      * @param board
      */
     public GameController(@NotNull Board board) {
+        this(board, new CardDealer());
+    }
+
+    /**
+     * Constructs a new GameController, which deals the cards with the given
+     * seed; so the game can be replayed.
+     *
+     * @param board the board of the game
+     * @param seed the seed for dealing the cards
+     */
+    public GameController(@NotNull Board board, long seed) {
+        this(board, new CardDealer(seed));
+    }
+
+    private GameController(@NotNull Board board, @NotNull CardDealer dealer) {
         this.board = board;
+        this.dealer = dealer;
         board.setGameController(this);
-        collectedCheckpoints.add(0);
-        collectedCheckpoints.add(1);
-        collectedCheckpoints.add(2);
+        allCheckpoints = Collections.unmodifiableSet(findCheckpoints(board));
+        setCommandHandler(Command.FORWARD, GameController::moveForward);
+        setCommandHandler(Command.RIGHT, GameController::turnRight);
+        setCommandHandler(Command.LEFT, GameController::turnLeft);
+        setCommandHandler(Command.FAST_FORWARD, GameController::fastForward);
+    }
+
+    /**
+     * Returns the dealer of the cards of this game.
+     *
+     * @return the card dealer
+     */
+    public CardDealer getCardDealer() {
+        return dealer;
+    }
+
+    /**
+     * Sets the listener, which is informed about all events of this game.
+     *
+     * @param listener the listener, or null for no listener
+     */
+    public void setEventListener(GameEventListener listener) {
+        events = listener != null ? listener : GameEventListener.NONE;
+    }
+
+    /**
+     * Returns the listener, which is informed about all events of this game.
+     *
+     * @return the listener ({@link GameEventListener#NONE} if there is none)
+     */
+    public GameEventListener getEventListener() {
+        return events;
+    }
+
+    /**
+     * Returns the current round of the game, which is counted up by every
+     * programming phase.
+     *
+     * @return the round (0 before the first programming phase)
+     */
+    public int getRound() {
+        return round;
+    }
+
+    /**
+     * Sets the current round of the game; this is needed when a game is
+     * continued from a snapshot, since the cards dealt in a round depend
+     * on the round (see {@link CardDealer#startRound(int)}).
+     *
+     * @param round the round
+     */
+    public void setRound(int round) {
+        this.round = round;
+    }
+
+    /**
+     * Sets the handler, which executes the given command in this game. If an
+     * interactive command has a handler, the handler is executed instead of
+     * asking the player to choose an option (which is useful for
+     * simulations).
+     *
+     * @param command the command
+     * @param handler the handler, or null if the command should do nothing
+     *                (or ask the player, if it is interactive)
+     */
+    public void setCommandHandler(@NotNull Command command, CommandHandler handler) {
+        handlers[command.ordinal()] = handler;
+    }
+
+    /**
+     * Compiles the cards in the registers of all players into
+     * {@link #program}, so that the registers do not need to be read from
+     * the card fields again while the programs are executed.
+     */
+    private void compilePrograms() {
+        int players = board.getPlayersNumber();
+        if (program == null || program.length != Player.NO_REGISTERS * players) {
+            program = new byte[Player.NO_REGISTERS * players];
+        }
+        for (int i = 0; i < players; i++) {
+            Player player = board.getPlayer(i);
+            for (int step = 0; step < Player.NO_REGISTERS; step++) {
+                CommandCard card = player.getProgramField(step).getCard();
+                program[step * players + i] = card != null ? (byte) card.command.ordinal() : NO_OPCODE;
+            }
+        }
+    }
+
+    /**
+     * Collects the ids of all checkpoints on the given board.
+     *
+     * @param board the board
+     * @return the set of checkpoint ids
+     */
+    private static Set<Integer> findCheckpoints(@NotNull Board board) {
+        Set<Integer> checkpoints = new HashSet<>();
+        BoardCore core = board.getCore();
+        for (int cell = 0; cell < core.size(); cell++) {
+            // only the spaces with checkpoints need to be looked at (and created)
+            if (core.hasFlag(cell, BoardCore.CHECKPOINT)) {
+                for (FieldAction action : board.getSpace(cell).getActions()) {
+                    if (action instanceof CheckPointFieldAction checkPoint) {
+                        checkpoints.add(checkPoint.getCheckPointFieldId());
+                    }
+                }
+            }
+        }
+        return checkpoints;
     }
 
     /**
@@ -98,43 +259,54 @@ public class GameController {
      * This method starts the programming phase
      */
     public void startProgrammingPhase() {
-        board.setPhase(Phase.PROGRAMMING);
-        board.setCurrentPlayer(board.getPlayer(0));
-        board.setStep(0);
-        for (int i = 0; i < board.getPlayersNumber(); i++) {
-            Player player = board.getPlayer(i);
-            if (player != null) {
-                for (int j = 0; j < Player.NO_REGISTERS; j++) {
-                    CommandCardField field = player.getProgramField(j);
-                    field.setCard(null);
-                    field.setVisible(true);
-                }
-                for (int j = 0; j < Player.NO_CARDS; j++) {
-                    CommandCardField field = player.getCardField(j);
-                    field.setCard(generateRandomCommandCard());
-                    field.setVisible(true);
+        Subject.beginBatch();
+        try {
+            board.setPhase(Phase.PROGRAMMING);
+            program = null;
+            board.setCurrentPlayer(board.getPlayer(0));
+            board.setStep(0);
+            round++;
+            dealer.startRound(round);
+            for (int i = 0; i < board.getPlayersNumber(); i++) {
+                Player player = board.getPlayer(i);
+                if (player != null) {
+                    // the cards of the last round are discarded by the dealer
+                    dealer.deal(player);
+                    for (int j = 0; j < Player.NO_REGISTERS; j++) {
+                        player.getProgramField(j).setVisible(true);
+                    }
+                    for (int j = 0; j < Player.NO_CARDS; j++) {
+                        player.getCardField(j).setVisible(true);
+                    }
                 }
             }
+            events.phaseChanged(Phase.PROGRAMMING);
+            events.roundStarted(round);
+        } finally {
+            Subject.endBatch();
         }
     }
 
-    // XXX: V2
-
-    private CommandCard generateRandomCommandCard() {
-        Command[] commands = Command.values();
-        int random = (int) (Math.random() * commands.length);
-        return new CommandCard(commands[random]);
-    }
-
     /**
      * This concludes the programming phase
      */
     public void finishProgrammingPhase() {
-        makeProgramFieldsInvisible();
-        makeProgramFieldsVisible(0);
-        board.setPhase(Phase.ACTIVATION);
-        board.setCurrentPlayer(board.getPlayer(0));
-        board.setStep(0);
+        Subject.beginBatch();
+        try {
+            makeProgramFieldsInvisible();
+            makeProgramFieldsVisible(0);
+            compilePrograms();
+            for (int i = 0; i < board.getPlayersNumber(); i++) {
+                events.registersProgrammed(board.getPlayer(i));
+            }
+            board.setPhase(Phase.ACTIVATION);
+            board.setCurrentPlayer(board.getPlayer(0));
+            board.setStep(0);
+            events.phaseChanged(Phase.ACTIVATION);
+            events.registerStarted(0);
+        } finally {
+            Subject.endBatch();
+        }
     }
 
 
@@ -161,6 +333,33 @@ public class GameController {
 
 
 
+    /**
+     * Ends the game with the given player as the winner. The phase of the
+     * board is set to {@link Phase#FINISHED}, so that no more registers are
+     * executed; views and other observers of the board are informed about the
+     * winner via the usual update notifications of the board (instead of the
+     * controller opening a dialog itself), which makes it possible to run the
+     * game without a user interface.
+     *
+     * @param player the player who has won the game
+     */
+    public void declareWinner(@NotNull Player player) {
+        if (player.board == board && board.getWinner() == null) {
+            board.setWinner(player);
+            board.setPhase(Phase.FINISHED);
+            events.phaseChanged(Phase.FINISHED);
+        }
+    }
+
+    /**
+     * Returns whether the game on this controller's board is finished.
+     *
+     * @return true if a player has won the game
+     */
+    public boolean isGameOver() {
+        return board.getPhase() == Phase.FINISHED;
+    }
+
     /**
      * This method executes the programs.
      */
@@ -179,10 +378,21 @@ public class GameController {
 
     /**
      * This is executing program step, if the board is in the activation phase.
+     * The changes of every step are notified to the observers in one batch
+     * at the end of the step.
      */
     private void continuePrograms() {
+        if (isGameOver()) {
+            // nothing to execute anymore, when the game is over
+            return;
+        }
         do {
-            executeNextStep();
+            Subject.beginBatch();
+            try {
+                executeNextStep();
+            } finally {
+                Subject.endBatch();
+            }
         } while (board.getPhase() == Phase.ACTIVATION && !board.isStepMode());
     }
 
@@ -198,13 +408,18 @@ public class GameController {
         if (currentPlayer != null &&
                 board.getPhase() == Phase.PLAYER_INTERACTION &&
                 option != null) {
-            board.setPhase(Phase.ACTIVATION);
-            executeCommand(currentPlayer, option);
-
-            int nextPlayerNumber = board.getPlayerNumber(currentPlayer) + 1;
-            if (nextPlayerNumber < board.getPlayersNumber()) ;
-            {
-                board.setCurrentPlayer(board.getPlayer(nextPlayerNumber));
+            Subject.beginBatch();
+            try {
+                events.optionChosen(currentPlayer, option);
+                board.setPhase(Phase.ACTIVATION);
+                events.phaseChanged(Phase.ACTIVATION);
+                executeCommand(currentPlayer, option);
+                continueAfterPlayer(currentPlayer);
+            } finally {
+                Subject.endBatch();
+            }
+            if (board.getPhase() == Phase.ACTIVATION && !board.isStepMode()) {
+                continuePrograms();
             }
         } else {
             int step = board.getStep() + 1;
@@ -213,6 +428,7 @@ public class GameController {
                 makeProgramFieldsVisible(step);
                 board.setStep(step);
                 board.setCurrentPlayer(board.getPlayer(0));
+                events.registerStarted(step);
             } else {
                 startProgrammingPhase();
             }
@@ -223,7 +439,9 @@ public class GameController {
 
     /**
      * This method checks whether there is a card and what card it is
-     * and then executes the step based on the card
+     * and then executes the step based on the card. The cards are taken from
+     * the compiled programs, which are compiled when the programming phase
+     * is finished (or here, if the game was loaded in the activation phase).
      *
      * @author Jonas Woetmann Larsen, S235446
      */
@@ -232,37 +450,23 @@ public class GameController {
         if (board.getPhase() == Phase.ACTIVATION && currentPlayer != null) {
             int step = board.getStep();
             if (step >= 0 && step < Player.NO_REGISTERS) {
-                CommandCard card = currentPlayer.getProgramField(step).getCard();
-                if (card != null) {
-                    Command command = card.command;
-                    if (command.isInteractive()) {
+                if (program == null) {
+                    compilePrograms();
+                }
+                byte opcode = program[step * board.getPlayersNumber() + board.getPlayerNumber(currentPlayer)];
+                if (opcode != NO_OPCODE) {
+                    CommandHandler handler = handlers[opcode];
+                    if (handler == null && COMMANDS[opcode].isInteractive()) {
                         board.setPhase(Phase.PLAYER_INTERACTION);
+                        events.phaseChanged(Phase.PLAYER_INTERACTION);
                         return;
                     }
-
-                    executeCommand(currentPlayer, command);
-                }
-                int nextPlayerNumber = board.getPlayerNumber(currentPlayer) + 1;
-                if (nextPlayerNumber < board.getPlayersNumber()) {
-                    board.setCurrentPlayer(board.getPlayer(nextPlayerNumber));
-                } else {
-                    for (Player player : board.getPlayers()) {
-                        Space space = player.getSpace();
-                        if (!space.getActions().isEmpty()) {
-                            for (FieldAction fieldAction : space.getActions()) {
-                                fieldAction.doAction(board.getGameController(), space);
-                            }
-                        }
-                    }
-                    step++;
-                    if (step < Player.NO_REGISTERS) {
-                        makeProgramFieldsVisible(step);
-                        board.setStep(step);
-                        board.setCurrentPlayer(board.getPlayer(0));
-                    } else {
-                        startProgrammingPhase();
+                    if (handler != null) {
+                        events.commandExecuted(currentPlayer, COMMANDS[opcode]);
+                        handler.execute(this, currentPlayer);
                     }
                 }
+                continueAfterPlayer(currentPlayer);
             } else {
                 // this should not happen
                 assert false;
@@ -274,107 +478,240 @@ public class GameController {
     }
 
     /**
-     * Execute the command
+     * Hands the turn over to the player following the given player in the
+     * current register. If the given player was the last one, the field actions
+     * of the spaces the robots are on are executed and the next register is
+     * started (or the next programming phase, if all registers are done). If
+     * one of the field actions ended the game, nothing else happens.
+     *
+     * @param currentPlayer the player who has just executed their register
+     */
+    private void continueAfterPlayer(@NotNull Player currentPlayer) {
+        int nextPlayerNumber = board.getPlayerNumber(currentPlayer) + 1;
+        if (nextPlayerNumber < board.getPlayersNumber()) {
+            board.setCurrentPlayer(board.getPlayer(nextPlayerNumber));
+        } else {
+            activateBoardElements();
+            if (isGameOver()) {
+                return;
+            }
+            int step = board.getStep() + 1;
+            if (step < Player.NO_REGISTERS) {
+                makeProgramFieldsVisible(step);
+                board.setStep(step);
+                board.setCurrentPlayer(board.getPlayer(0));
+                events.registerStarted(step);
+            } else {
+                startProgrammingPhase();
+            }
+        }
+    }
+
+    /**
+     * Activates the elements of the board, on which robots are, at the end of
+     * a register. The elements are activated in stages, one stage per type of
+     * element: first the conveyor belts move, then the gears turn, then the
+     * checkpoints are collected, and finally all other field actions are
+     * executed. The robots on the elements of each type are found via the
+     * indexes of the occupied cells in the {@link BoardCore}, so that the
+     * cost depends on the number of robots on active elements only. Within
+     * a stage, the elements are activated in the order of the players on
+     * them. If the game is over after a stage, the other stages are skipped.
+     */
+    private void activateBoardElements() {
+        moveConveyorBelts();
+        for (int stage : ACTIVATION_STAGES) {
+            if (isGameOver()) {
+                return;
+            }
+            activate(stage);
+        }
+    }
+
+    /**
+     * The stages of the activation after the conveyor belts, in the order
+     * in which they are executed.
+     */
+    private static final int[] ACTIVATION_STAGES = {
+            BoardCore.GEARS, BoardCore.CHECKPOINT, BoardCore.OTHER_ACTION };
+
+    /**
+     * Moves the robots on all conveyor belts of the board at the same time
+     * (see {@link ConveyorGraph#resolveMoves(int[], int, int[])}). The robots,
+     * which are moved, are removed from their spaces first, so that no robot
+     * is put on a space which is not yet left by another robot.
+     */
+    private void moveConveyorBelts() {
+        BoardCore core = board.getCore();
+        int robots = occupiedCells(BoardCore.CONVEYOR);
+        if (robots == 0 ||
+                board.getConveyorGraph().resolveMoves(activeCells, robots, activeTargets) == 0) {
+            return;
+        }
+        for (int i = 0; i < robots; i++) {
+            // the occupants are looked up first, since they change while moving
+            activePlayers[i] = core.getOccupant(activeCells[i]);
+        }
+        for (int i = 0; i < robots; i++) {
+            if (activeTargets[i] != activeCells[i]) {
+                board.getPlayer(activePlayers[i]).setSpace(null);
+            }
+        }
+        for (int i = 0; i < robots; i++) {
+            if (activeTargets[i] != activeCells[i]) {
+                board.getPlayer(activePlayers[i]).setSpace(board.getSpace(activeTargets[i]));
+            }
+        }
+    }
+
+    /**
+     * Executes the field actions of the given type on all spaces, on which
+     * robots are, in the order of the players.
+     *
+     * @param flag the flag of the type of the field actions
+     */
+    private void activate(int flag) {
+        BoardCore core = board.getCore();
+        int count = occupiedCells(flag);
+        // sort the cells by their occupants (there are only a few of them)
+        for (int i = 1; i < count; i++) {
+            int cell = activeCells[i];
+            int j = i;
+            while (j > 0 && core.getOccupant(activeCells[j - 1]) > core.getOccupant(cell)) {
+                activeCells[j] = activeCells[j - 1];
+                j--;
+            }
+            activeCells[j] = cell;
+        }
+        for (int i = 0; i < count; i++) {
+            Space space = board.getSpace(activeCells[i]);
+            for (FieldAction action : space.getActions()) {
+                if (Space.getElementFlag(action) == flag) {
+                    action.doAction(this, space);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the occupied cells with the given flag to {@link #activeCells}.
+     *
+     * @param flag the flag
+     * @return the number of occupied cells with the flag
+     */
+    private int occupiedCells(int flag) {
+        BoardCore core = board.getCore();
+        int count = core.getOccupiedCount(flag);
+        if (activeCells.length < count) {
+            activeCells = new int[count];
+            activeTargets = new int[count];
+            activePlayers = new int[count];
+        }
+        return core.getOccupiedCells(flag, activeCells);
+    }
+
+    /**
+     * Execute the command with the handler registered for it (see
+     * {@link #setCommandHandler(Command, CommandHandler)}).
      *
      * @param player  Player
      * @param command Command
      */
     private void executeCommand(@NotNull Player player, Command command) {
         if (player != null && player.board == board && command != null) {
-            // XXX This is a very simplistic way of dealing with some basic cards and
-            //     their execution. This should eventually be done in a more elegant way
-            //     (this concerns the way cards are modelled as well as the way they are executed).
-
-            switch (command) {
-                case FORWARD:
-                    this.moveForward(player);
-                    break;
-                case RIGHT:
-                    this.turnRight(player);
-                    break;
-                case LEFT:
-                    this.turnLeft(player);
-                    break;
-                case FAST_FORWARD:
-                    this.fastForward(player);
-                    break;
-                default:
-                    // DO NOTHING (for now)
+            CommandHandler handler = handlers[command.ordinal()];
+            if (handler != null) {
+                handler.execute(this, player);
             }
         }
     }
 
-    public static boolean hasCollectedAllCheckpoints(Set<Integer> checkpoints) {
-        return collectedCheckpoints.containsAll(checkpoints);
+    /**
+     * Checks whether the given player has collected all the checkpoints
+     * of this game.
+     *
+     * @param player the player
+     * @return true if the player has collected all checkpoints
+     */
+    public boolean hasCollectedAllCheckpoints(@NotNull Player player) {
+        return player.hasCollectedAllCheckpoints(allCheckpoints);
     }
 
 
     /**
      * This method makes the player move forward when a "FWD" card has been played.
      * It also checks to see if the target has a gear and rotates the player accordingly.
-     * It also checks if there is a wall, if there is a wall the player connot move thourgh it.
+     * It also checks if there is a wall, if there is a wall the player connot move thourgh it.<p></p>
+     *
+     * The robots in front of the player are pushed along. The whole chain of
+     * robots is computed first (see {@link #pushChain(int, Heading)}); if any
+     * robot of the chain cannot move, no robot moves. Otherwise all robots
+     * of the chain are moved at once, starting with the first one; the
+     * headings of the pushed robots do not change.
      *
      * @param player Player
      * @author Anton Fu Hou Dong, s235460, Jonas Woetmann Larsen, S235446, @author William Wegener Kofoed, S235451
      */
     public void moveForward(@NotNull Player player) {
-
         Space current = player.getSpace();
-        player.setMoved(true);
-        Space target = board.getNeighbour(current, player.getHeading());
-        Player targetPlayer;
-        targetPlayer = target.getPlayer();
-        if (current.hasCurrentWall(player)) {
-            player.setMoved(false);
-            //System.out.println("Cannot move forward: Wall detected in the target space for player " + player.getName());
+        if (current == null) {
             return;
-        } else {
-            //System.out.println("no wall ahead for player " + player.getName());
         }
-
-        if (targetPlayer != null) {
-            targetPlayer.setMoved(true);
-            //System.out.println("there is player " + targetPlayer.getName() + " on the space, push the player!");
-            Heading tempHeading = target.getPlayer().getHeading();
-            targetPlayer.setHeading(player.getHeading());
-            if (!target.hasCurrentWall(targetPlayer)) {
-                // System.out.println("no wall ahead for player " + targetPlayer.getName());
-                moveForward(targetPlayer);
-                targetPlayer.setHeading(tempHeading);
-            } else {
-                // System.out.println("There is wall ahead, no move for player " + targetPlayer.getName());
-                targetPlayer.setHeading(tempHeading);
-                targetPlayer.setMoved(false);
+        Heading heading = player.getHeading();
+        int length = pushChain(current.cell, heading);
+        if (length == 0) {
+            return;
+        }
+        Subject.beginBatch();
+        try {
+            for (int i = length - 1; i >= 0; i--) {
+                board.getPlayer(pushedPlayers[i]).setSpace(board.getSpace(pushedCells[i + 1]));
             }
-            if (!targetPlayer.getMoved()) {
-                targetPlayer.setSpace(target);
-                player.setSpace(current);
-                player.setMoved(false);
-                // System.out.println("Player " + player.getName() + "cannot move as target cannot move");
-                return;
+            if (board.getSpace(pushedCells[1]).hasGear()) {
+                player.setHeading(heading.next());
             }
-        }
-        if (target.hasGear()) {
-            switch (player.getHeading()) {
-                case NORTH:
-                    player.setHeading(Heading.EAST);
-                    break;
-                case EAST:
-                    player.setHeading(Heading.SOUTH);
-                    break;
-                case SOUTH:
-                    player.setHeading(Heading.WEST);
-                    break;
-                case WEST:
-                    player.setHeading(Heading.NORTH);
-                    break;
+            if (length > 1) {
+                events.robotsPushed(player, heading, length - 1);
             }
+        } finally {
+            Subject.endBatch();
         }
-        // nothing prevent move
-        if (player.getMoved()) {
-            player.setSpace(target);
-            //System.out.println("++++++++  moveForward");
-        }
+    }
+
+    /**
+     * Computes the chain of robots, which are pushed when the robot on the
+     * given cell moves in the given direction. The cells of the robots,
+     * followed by the free cell in front of the last robot, are stored in
+     * {@link #pushedCells}, and the robots in {@link #pushedPlayers}.
+     *
+     * @param cell the cell of the moving robot
+     * @param heading the direction of the move
+     * @return the number of robots in the chain, or 0 if the chain is
+     *         blocked by a wall, the edge of a bounded board, or if it closes
+     *         around a wrapping board
+     */
+    private int pushChain(int cell, Heading heading) {
+        BoardCore core = board.getCore();
+        int length = 0;
+        int next = cell;
+        do {
+            if (core.hasWall(next, heading)) {
+                return 0;
+            }
+            if (length + 1 >= pushedCells.length) {
+                pushedCells = Arrays.copyOf(pushedCells, 2 * (length + 1));
+                pushedPlayers = Arrays.copyOf(pushedPlayers, pushedCells.length);
+            }
+            pushedCells[length] = next;
+            pushedPlayers[length] = core.getOccupant(next);
+            length++;
+            next = core.neighbour(next, heading);
+            if (next == BoardCore.NO_CELL || next == cell) {
+                return 0;
+            }
+        } while (core.getOccupant(next) != BoardCore.NO_PLAYER);
+        pushedCells[length] = next;
+        return length;
     }
 
     /**
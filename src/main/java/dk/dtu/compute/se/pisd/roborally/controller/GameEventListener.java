@@ -0,0 +1,98 @@
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import dk.dtu.compute.se.pisd.roborally.model.Phase;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A listener for the events of a game, which are reported by the
+ * {@link GameController} of the game while it is played (see
+ * {@link GameController#setEventListener(GameEventListener)}). Unlike the
+ * observers of the model, the listener is informed about every single event
+ * immediately and in the order in which the events happen, so that the game
+ * can be recorded (see {@link dk.dtu.compute.se.pisd.roborally.dal.GameEventLog}).
+ * All methods do nothing by default.
+ *
+ */
+public interface GameEventListener {
+
+    /**
+     * A listener, which ignores all events.
+     */
+    GameEventListener NONE = new GameEventListener() {
+    };
+
+    /**
+     * Called when a new round was started, after the cards were dealt.
+     *
+     * @param round the number of the round (starting with 1)
+     */
+    default void roundStarted(int round) {
+    }
+
+    /**
+     * Called for every player when the programming phase is finished, with
+     * the cards in the registers and the hand of the player.
+     *
+     * @param player the player
+     */
+    default void registersProgrammed(@NotNull Player player) {
+    }
+
+    /**
+     * Called when the phase of the game changed.
+     *
+     * @param phase the new phase
+     */
+    default void phaseChanged(@NotNull Phase phase) {
+    }
+
+    /**
+     * Called when the execution of a register starts.
+     *
+     * @param register the register
+     */
+    default void registerStarted(int register) {
+    }
+
+    /**
+     * Called when the command of a register was executed for a player.
+     *
+     * @param player the player
+     * @param command the command
+     */
+    default void commandExecuted(@NotNull Player player, @NotNull Command command) {
+    }
+
+    /**
+     * Called when a player chose an option of an interactive command (the
+     * option is executed afterwards).
+     *
+     * @param player the player
+     * @param option the chosen option
+     */
+    default void optionChosen(@NotNull Player player, @NotNull Command option) {
+    }
+
+    /**
+     * Called when a player pushed other robots.
+     *
+     * @param player the player who pushed
+     * @param heading the direction of the push
+     * @param robots the number of pushed robots
+     */
+    default void robotsPushed(@NotNull Player player, @NotNull Heading heading, int robots) {
+    }
+
+    /**
+     * Called when a player collected a checkpoint.
+     *
+     * @param player the player
+     * @param checkpoint the id of the checkpoint
+     */
+    default void checkpointCollected(@NotNull Player player, int checkpoint) {
+    }
+
+}
@@ -25,7 +25,7 @@ public class GearsFieldAction extends FieldAction{
     }
 
     public boolean doAction(GameController gameController, Space space) {
-        System.out.println("GearsFieldAction : doAction()");
+        // System.out.println("GearsFieldAction : doAction()");
         Player player = space.getPlayer();
         Heading heading = player.getHeading();
 
@@ -0,0 +1,229 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of database connections. A thread acquires a connection,
+ * which is then bound to this thread until it is closed again; acquiring a
+ * connection again in the same thread (before it is closed) returns the same
+ * connection. Every connection caches the statements prepared on it, so that
+ * each statement is prepared only once per connection.
+ *
+ */
+final class ConnectionPool implements AutoCloseable {
+
+    /**
+     * A connection of the pool with its cache of prepared statements.
+     * Closing it returns it to the pool (once it was closed as often as it
+     * was acquired by the thread).
+     */
+    static final class PooledConnection implements AutoCloseable {
+
+        final Connection connection;
+
+        private final ConnectionPool pool;
+
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        private int acquired;
+
+        private PooledConnection(ConnectionPool pool, Connection connection) {
+            this.pool = pool;
+            this.connection = connection;
+        }
+
+        /**
+         * Returns the prepared statement for the given SQL, which is
+         * prepared on the first call only.
+         *
+         * @param sql the SQL of the statement
+         * @return the prepared statement
+         * @throws SQLException if the statement could not be prepared
+         */
+        PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            }
+            return statement;
+        }
+
+        /**
+         * Returns the prepared statement for the given SQL, which returns
+         * the generated keys (or not) as specified.
+         */
+        PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null) {
+                statement = connection.prepareStatement(sql, autoGeneratedKeys);
+                statements.put(sql, statement);
+            }
+            return statement;
+        }
+
+        /**
+         * Returns the prepared statement for the given SQL, with result sets
+         * of the given type and concurrency.
+         */
+        PreparedStatement prepare(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null) {
+                statement = connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+                statements.put(sql, statement);
+            }
+            return statement;
+        }
+
+        @Override
+        public void close() {
+            if (--acquired == 0) {
+                pool.release(this);
+            }
+        }
+
+    }
+
+    private static final long TIMEOUT_SECONDS = 30;
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    private final int size;
+
+    private final BlockingQueue<PooledConnection> idle;
+
+    private final AtomicInteger opened = new AtomicInteger();
+
+    private final ThreadLocal<PooledConnection> bound = new ThreadLocal<>();
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool of at most the given number of connections to the
+     * database with the given JDBC URL. Connections are opened when they are
+     * needed only.
+     *
+     * @param url the JDBC URL of the database
+     * @param user the user name
+     * @param password the password
+     * @param size the maximum number of connections
+     */
+    ConnectionPool(String url, String user, String password, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("The pool must have at least one connection");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.size = size;
+        this.idle = new ArrayBlockingQueue<>(size);
+    }
+
+    /**
+     * Acquires a connection for the current thread. If all connections are
+     * in use, this waits until one is returned to the pool.
+     *
+     * @return the connection bound to the current thread
+     * @throws SQLException if no connection could be opened or none became available
+     */
+    PooledConnection acquire() throws SQLException {
+        if (closed) {
+            throw new SQLException("The connection pool is closed");
+        }
+        PooledConnection connection = bound.get();
+        if (connection == null) {
+            connection = idle.poll();
+            if (connection == null) {
+                if (opened.incrementAndGet() <= size) {
+                    try {
+                        connection = new PooledConnection(this, DriverManager.getConnection(url, user, password));
+                    } catch (SQLException e) {
+                        opened.decrementAndGet();
+                        throw e;
+                    }
+                } else {
+                    opened.decrementAndGet();
+                    try {
+                        connection = idle.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a connection", e);
+                    }
+                    if (connection == null) {
+                        throw new SQLTimeoutException("No connection available after " + TIMEOUT_SECONDS + "s");
+                    }
+                }
+            }
+            bound.set(connection);
+        }
+        connection.acquired++;
+        return connection;
+    }
+
+    /**
+     * Returns the connection acquired by the current thread.
+     *
+     * @return the connection of the current thread
+     * @throws IllegalStateException if the current thread did not acquire a connection
+     */
+    PooledConnection current() {
+        PooledConnection connection = bound.get();
+        if (connection == null) {
+            throw new IllegalStateException("The current thread did not acquire a connection");
+        }
+        return connection;
+    }
+
+    private void release(PooledConnection connection) {
+        bound.remove();
+        try {
+            // a transaction which was not finished properly is not
+            // handed over to the next user of the connection
+            if (!connection.connection.getAutoCommit()) {
+                connection.connection.rollback();
+                connection.connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            discard(connection);
+            return;
+        }
+        if (closed || !idle.offer(connection)) {
+            discard(connection);
+        }
+    }
+
+    private void discard(PooledConnection connection) {
+        opened.decrementAndGet();
+        try {
+            connection.connection.close();
+        } catch (SQLException e) {
+            // the connection is not used anymore anyway
+        }
+    }
+
+    /**
+     * Closes all idle connections of the pool; connections which are in use
+     * are closed when they are returned to the pool.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        PooledConnection connection;
+        while ((connection = idle.poll()) != null) {
+            discard(connection);
+        }
+    }
+
+}
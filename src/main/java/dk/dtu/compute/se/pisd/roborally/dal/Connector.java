@@ -25,12 +25,23 @@ import com.mysql.cj.util.StringUtils;
 import dk.dtu.compute.se.pisd.roborally.fileaccess.IOUtil;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 /**
- * ...
+ * The connector maintains a pool of connections to the database. By default,
+ * it connects to the local MySQL server; the database can be configured by
+ * the system properties {@value #URL_PROPERTY}, {@value #USER_PROPERTY} and
+ * {@value #PASSWORD_PROPERTY} (for example to use an embedded database with
+ * a JDBC driver on the class path), the size of the pool by
+ * {@value #POOL_SIZE_PROPERTY}.
  *
  * @author Ekkart Kindler, ekki@dtu.dk
  *
@@ -43,17 +54,40 @@ public class Connector {
     private static final String USERNAME = "root";
     private static final String PASSWORD = "root";
 
+    private static final int POOL_SIZE = 4;
+
+    public static final String URL_PROPERTY = "roborally.db.url";
+    public static final String USER_PROPERTY = "roborally.db.user";
+    public static final String PASSWORD_PROPERTY = "roborally.db.password";
+    public static final String POOL_SIZE_PROPERTY = "roborally.db.poolSize";
+
     private static final String DELIMITER = ";;";
     
-    private Connection connection;
+    private final ConnectionPool pool;
         
     public Connector() {
+        this(System.getProperty(URL_PROPERTY,
+                        "jdbc:mysql://" + HOST + ":" + PORT + "/" + DATABASE + "?serverTimezone=UTC"),
+                System.getProperty(USER_PROPERTY, USERNAME),
+                System.getProperty(PASSWORD_PROPERTY, PASSWORD),
+                Integer.getInteger(POOL_SIZE_PROPERTY, POOL_SIZE));
+    }
+
+    /**
+     * Creates a connector for the database with the given JDBC URL, which
+     * uses at most the given number of connections at the same time.
+     *
+     * @param url the JDBC URL of the database
+     * @param user the user name
+     * @param password the password
+     * @param poolSize the maximum number of connections
+     */
+    public Connector(String url, String user, String password, int poolSize) {
 		//System.out.println("Start connector");
-        try {
-			// String url = "jdbc:mysql://" + HOST + ":" + PORT + "/" + DATABASE;
-			String url = "jdbc:mysql://" + HOST + ":" + PORT + "/" + DATABASE + "?serverTimezone=UTC";
-			connection = DriverManager.getConnection(url, USERNAME, PASSWORD);
-			createDatabaseSchema("schemas/createschema.sql");
+        pool = new ConnectionPool(url, user, password, poolSize);
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+			createDatabaseSchema(connection.connection, "schemas/createschema.sql");
+			updateDatabaseSchema(connection.connection);
 		} catch (SQLException e) {
 			// TODO we should try to diagnose and fix some problems here and
 			//      exit in a more graceful way
@@ -63,7 +97,7 @@ public class Connector {
 		//System.out.println("End connector");
     }
     
-    private void createDatabaseSchema(String url) {
+    private void createDatabaseSchema(Connection connection, String url) {
 		//System.out.println("start createDatabaseSchema " + url);
     	String createTablesStatement =
 				IOUtil.readResource(url);
@@ -92,9 +126,100 @@ public class Connector {
 		}
 		//System.out.println("end createDatabaseSchema");
     }
-    
-    Connection getConnection() {
-    	return connection; 
+
+    /**
+     * Adds the columns and indexes of the Game table, which were added to
+     * the schema later, to a table created by an earlier version (the
+     * CREATE TABLE IF NOT EXISTS statements of the schema do not change
+     * existing tables). Every change is made only if it is missing, so this
+     * can run at every start. The creation time of existing games is not
+     * known and stays empty; their number of players is counted.
+     */
+    private void updateDatabaseSchema(Connection connection) {
+    	try (Statement statement = connection.createStatement()) {
+    		Set<String> columns = new HashSet<>();
+    		try (ResultSet rs = statement.executeQuery("SELECT * FROM Game WHERE 1 = 0")) {
+    			ResultSetMetaData metaData = rs.getMetaData();
+    			for (int i = 1; i <= metaData.getColumnCount(); i++) {
+    				columns.add(metaData.getColumnName(i).toLowerCase());
+    			}
+    		}
+    		if (!columns.contains("created")) {
+    			statement.executeUpdate("ALTER TABLE Game ADD COLUMN created timestamp NULL DEFAULT NULL");
+    			statement.executeUpdate("ALTER TABLE Game MODIFY COLUMN created timestamp NULL DEFAULT CURRENT_TIMESTAMP");
+    		}
+    		if (!columns.contains("noofplayers")) {
+    			statement.executeUpdate("ALTER TABLE Game ADD COLUMN noOfPlayers tinyint");
+    			statement.executeUpdate("UPDATE Game SET noOfPlayers = " +
+    					"(SELECT COUNT(*) FROM Player WHERE Player.gameID = Game.gameID)");
+    		}
+
+    		Set<String> indexes = getIndexedColumns(connection, "Game");
+    		if (!indexes.contains("boardname,gameid")) {
+    			statement.executeUpdate("CREATE INDEX Game_boardName ON Game (boardName, gameID)");
+    		}
+    		if (!indexes.contains("created")) {
+    			statement.executeUpdate("CREATE INDEX Game_created ON Game (created)");
+    		}
+    	} catch (SQLException e) {
+    		e.printStackTrace();
+    		// TODO error handling
+    	}
+    }
+
+    /**
+     * Returns the columns of all indexes of the given table, each as the
+     * comma separated list of its columns in lower case.
+     */
+    private static Set<String> getIndexedColumns(Connection connection, String table) throws SQLException {
+    	DatabaseMetaData metaData = connection.getMetaData();
+    	String tableName = table;
+    	try (ResultSet rs = metaData.getTables(connection.getCatalog(), null, "%", new String[] {"TABLE"})) {
+    		while (rs.next()) {
+    			if (table.equalsIgnoreCase(rs.getString("TABLE_NAME"))) {
+    				tableName = rs.getString("TABLE_NAME");
+    			}
+    		}
+    	}
+    	Map<String, String> indexes = new HashMap<>();
+    	try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), null, tableName, false, false)) {
+    		while (rs.next()) {
+    			String name = rs.getString("INDEX_NAME");
+    			String column = rs.getString("COLUMN_NAME");
+    			if (name != null && column != null) {
+    				// the columns of an index are ordered by their position
+    				indexes.merge(name, column.toLowerCase(), (columns, next) -> columns + "," + next);
+    			}
+    		}
+    	}
+    	return new HashSet<>(indexes.values());
+    }
+
+    /**
+     * Acquires a connection from the pool for the current thread, which
+     * must be closed after use (which returns it to the pool).
+     *
+     * @return the connection
+     * @throws SQLException if no connection is available
+     */
+    ConnectionPool.PooledConnection acquire() throws SQLException {
+    	return pool.acquire();
+    }
+
+    /**
+     * Returns the connection, which the current thread acquired.
+     *
+     * @return the connection of the current thread
+     */
+    ConnectionPool.PooledConnection current() {
+    	return pool.current();
+    }
+
+    /**
+     * Closes all connections of this connector.
+     */
+    public void close() {
+    	pool.close();
     }
     
 }
@@ -0,0 +1,247 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.controller.GameEventListener;
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records all events of a game in an append-only binary log file, so that
+ * the game can be analysed and replayed later (see {@link GameReplay}). The
+ * log starts with a header containing the seed of the game's
+ * {@link dk.dtu.compute.se.pisd.roborally.controller.CardDealer}; then there
+ * is one record for every event. A record consists of the type of the
+ * event (one byte) and its data:
+ * <ul>
+ *     <li>round started: the round (int),</li>
+ *     <li>snapshot: the length (int) and a snapshot of the game (see
+ *     {@link GameSnapshotCodec}), taken at the beginning of every
+ *     {@code snapshotInterval}-th round,</li>
+ *     <li>registers programmed: the player and the commands in the registers
+ *     and in the hand of the player (one byte each),</li>
+ *     <li>phase changed: the phase,</li>
+ *     <li>register started: the register,</li>
+ *     <li>command executed and option chosen: the player and the command,</li>
+ *     <li>robots pushed: the player, the heading and the number of robots,</li>
+ *     <li>checkpoint collected: the player and the checkpoint (int).</li>
+ * </ul>
+ * Players, commands, phases and headings are stored by their numbers and
+ * ordinals. The records are buffered; they are written to the file when the
+ * buffer is full, when {@link #flush()} is called and when the log is closed.
+ * If writing to the file fails, the log stops recording (since the file would
+ * not be readable after the failed record anyway), and the failure is thrown
+ * by the next call of {@link #flush()} or {@link #close()}.
+ *
+ */
+public class GameEventLog implements GameEventListener, AutoCloseable {
+
+    static final int MAGIC = 0x5252454C; // "RREL"
+
+    static final short VERSION = 1;
+
+    static final byte ROUND = 1;
+    static final byte SNAPSHOT = 2;
+    static final byte PROGRAMMED = 3;
+    static final byte PHASE = 4;
+    static final byte REGISTER = 5;
+    static final byte COMMAND = 6;
+    static final byte OPTION = 7;
+    static final byte PUSH = 8;
+    static final byte CHECKPOINT = 9;
+
+    static final byte NONE = -1;
+
+    /**
+     * The default number of rounds between two snapshots.
+     */
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 10;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Board board;
+
+    private final FileChannel channel;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /**
+     * The buffer, into which the records are put after writing the log
+     * failed; its content is never written.
+     */
+    private final ByteBuffer discarded = ByteBuffer.allocate(1 + 1 + Player.NO_REGISTERS + Player.NO_CARDS);
+
+    /**
+     * The failure of writing the log, after which nothing is recorded.
+     */
+    private IOException failure;
+
+    private final int snapshotInterval;
+
+    private boolean snapshotTaken;
+
+    /**
+     * Creates a log in the given file, which is replaced if it exists, and
+     * registers the log as the event listener of the given game controller.
+     *
+     * @param file the file of the log
+     * @param gameController the game controller of the game
+     * @param snapshotInterval the number of rounds between two snapshots
+     * @throws IOException if the file could not be created
+     */
+    public GameEventLog(@NotNull Path file, @NotNull GameController gameController, int snapshotInterval)
+            throws IOException {
+        if (snapshotInterval <= 0) {
+            throw new IllegalArgumentException("The snapshot interval must be positive");
+        }
+        this.board = gameController.board;
+        this.snapshotInterval = snapshotInterval;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putLong(gameController.getCardDealer().getSeed());
+        gameController.setEventListener(this);
+    }
+
+    @Override
+    public void roundStarted(int round) {
+        record(ROUND, 4).putInt(round);
+        if (failure == null && (!snapshotTaken || (round - 1) % snapshotInterval == 0)) {
+            ByteBuffer snapshot = GameSnapshotCodec.encode(board, null, null);
+            record(SNAPSHOT, 4).putInt(snapshot.remaining());
+            try {
+                writeBuffer();
+                while (snapshot.hasRemaining()) {
+                    channel.write(snapshot);
+                }
+                snapshotTaken = true;
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    @Override
+    public void registersProgrammed(@NotNull Player player) {
+        ByteBuffer record = record(PROGRAMMED, 1 + Player.NO_REGISTERS + Player.NO_CARDS);
+        record.put(playerNumber(player));
+        for (CommandCardField field : player.getProgram()) {
+            putCard(record, field);
+        }
+        for (CommandCardField field : player.getCards()) {
+            putCard(record, field);
+        }
+    }
+
+    @Override
+    public void phaseChanged(@NotNull Phase phase) {
+        record(PHASE, 1).put((byte) phase.ordinal());
+    }
+
+    @Override
+    public void registerStarted(int register) {
+        record(REGISTER, 1).put((byte) register);
+    }
+
+    @Override
+    public void commandExecuted(@NotNull Player player, @NotNull Command command) {
+        record(COMMAND, 2).put(playerNumber(player)).put((byte) command.ordinal());
+    }
+
+    @Override
+    public void optionChosen(@NotNull Player player, @NotNull Command option) {
+        record(OPTION, 2).put(playerNumber(player)).put((byte) option.ordinal());
+    }
+
+    @Override
+    public void robotsPushed(@NotNull Player player, @NotNull Heading heading, int robots) {
+        record(PUSH, 4).put(playerNumber(player)).put((byte) heading.ordinal()).putShort((short) robots);
+    }
+
+    @Override
+    public void checkpointCollected(@NotNull Player player, int checkpoint) {
+        record(CHECKPOINT, 5).put(playerNumber(player)).putInt(checkpoint);
+    }
+
+    /**
+     * Writes all buffered records to the file.
+     *
+     * @throws IOException if the records could not be written, or if writing
+     *                     the log failed before
+     */
+    public void flush() throws IOException {
+        checkFailure();
+        try {
+            writeBuffer();
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    /**
+     * Writes all buffered records to the file and closes it.
+     *
+     * @throws IOException if the records could not be written, or if writing
+     *                     the log failed before
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("Recording the game failed; the records after the failure are missing", failure);
+        }
+    }
+
+    /**
+     * Starts a new record of the given type in the buffer, making sure that
+     * there is room for the data of the record.
+     */
+    private ByteBuffer record(byte type, int size) {
+        if (failure == null && buffer.remaining() < 1 + size) {
+            try {
+                writeBuffer();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            return discarded.clear().put(type);
+        }
+        return buffer.put(type);
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            buffer.compact();
+        }
+    }
+
+    private byte playerNumber(Player player) {
+        return (byte) board.getPlayerNumber(player);
+    }
+
+    private static void putCard(ByteBuffer record, CommandCardField field) {
+        CommandCard card = field.getCard();
+        record.put(card != null ? (byte) card.command.ordinal() : NONE);
+    }
+
+}
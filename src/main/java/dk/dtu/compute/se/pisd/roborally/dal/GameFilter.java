@@ -0,0 +1,82 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+
+/**
+ * A filter for listing the games of a repository. Every criterion, which is
+ * null, matches all games.
+ *
+ */
+public class GameFilter {
+
+    /**
+     * The filter matching all games.
+     */
+    public static final GameFilter ALL = new GameFilter(null, null, null, null);
+
+    /**
+     * The name of the board of the games.
+     */
+    public final String boardName;
+
+    /**
+     * The earliest creation time of the games (inclusive).
+     */
+    public final Instant createdFrom;
+
+    /**
+     * The latest creation time of the games (exclusive).
+     */
+    public final Instant createdTo;
+
+    /**
+     * The number of players of the games.
+     */
+    public final Integer noOfPlayers;
+
+    public GameFilter(String boardName, Instant createdFrom, Instant createdTo, Integer noOfPlayers) {
+        this.boardName = boardName;
+        this.createdFrom = createdFrom;
+        this.createdTo = createdTo;
+        this.noOfPlayers = noOfPlayers;
+    }
+
+    /**
+     * Returns whether the given game matches this filter.
+     *
+     * @param game the game
+     * @return true if the game matches all criteria of the filter
+     */
+    public boolean matches(GameInDB game) {
+        return (boardName == null || boardName.equals(game.boardName)) &&
+                (createdFrom == null || (game.created != null && !game.created.isBefore(createdFrom))) &&
+                (createdTo == null || (game.created != null && game.created.isBefore(createdTo))) &&
+                (noOfPlayers == null || noOfPlayers == game.noOfPlayers);
+    }
+
+    /**
+     * Returns a page of the given games, which match the given filter,
+     * sorted by descending ids.
+     *
+     * @param games the games by their ids
+     * @param filter the filter
+     * @param limit the maximum number of games
+     * @return the page of games
+     */
+    static List<GameInDB> page(NavigableMap<Integer, GameInDB> games, GameFilter filter, int limit) {
+        List<GameInDB> result = new ArrayList<>();
+        for (GameInDB game : games.descendingMap().values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (filter.matches(game)) {
+                result.add(game);
+            }
+        }
+        return result;
+    }
+
+}
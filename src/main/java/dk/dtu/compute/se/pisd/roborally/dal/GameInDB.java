@@ -21,6 +21,8 @@
  */
 package dk.dtu.compute.se.pisd.roborally.dal;
 
+import java.time.Instant;
+
 /**
  * ...
  *
@@ -32,9 +34,20 @@ public class GameInDB {
     public final int id;
     public final String name;
 
+    public final String boardName;
+    public final Instant created;
+    public final int noOfPlayers;
+
     public GameInDB(int id, String name) {
+        this(id, name, null, null, 0);
+    }
+
+    public GameInDB(int id, String name, String boardName, Instant created, int noOfPlayers) {
         this.id = id;
         this.name = name;
+        this.boardName = boardName;
+        this.created = created;
+        this.noOfPlayers = noOfPlayers;
     }
 
     @Override
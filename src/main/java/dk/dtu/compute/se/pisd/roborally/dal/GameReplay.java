@@ -0,0 +1,262 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Replays a game recorded by a {@link GameEventLog}. The replay can seek to
+ * the beginning of any round, or to any register of a round, which is in
+ * the log: the game is restored from the nearest snapshot before that
+ * position, and then played forward with the programs and options recorded
+ * in the log, until the position is reached. So the cost of a seek depends
+ * only on the distance to the nearest snapshot, not on the position in the
+ * game. Since the cards are dealt with the seed of the original game, the
+ * replayed game is the same as the original one (including the decks).<p></p>
+ *
+ * The options of interactive cards are replayed from the options chosen by
+ * the players. A game in which the interactive cards were executed by a
+ * {@link dk.dtu.compute.se.pisd.roborally.controller.CommandHandler} cannot
+ * be replayed, since the log does not tell which option the handler chose;
+ * such a log is rejected when it is opened.
+ *
+ */
+public class GameReplay {
+
+    private static final Command[] COMMANDS = Command.values();
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final ByteBuffer log;
+
+    private final long seed;
+
+    /**
+     * The positions of the snapshots (after their length) by the round,
+     * at the beginning of which they were taken.
+     */
+    private final NavigableMap<Integer, Integer> snapshots = new TreeMap<>();
+
+    private int rounds;
+
+    /**
+     * Opens the log in the given file for replaying.
+     *
+     * @param file the file of the log
+     * @throws IOException if the log could not be read
+     * @throws IllegalArgumentException if the file does not contain a log, or
+     *         if the log contains interactive cards executed by a command handler
+     */
+    public GameReplay(@NotNull Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            log = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).asReadOnlyBuffer();
+        }
+        try {
+            if (log.getInt() != GameEventLog.MAGIC || log.getShort() != GameEventLog.VERSION) {
+                throw new IllegalArgumentException("Not a game event log");
+            }
+            seed = log.getLong();
+            readIndex();
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Corrupt game event log", e);
+        }
+    }
+
+    private void readIndex() {
+        ByteBuffer records = log.duplicate();
+        int round = 0;
+        int handlerRound = -1;
+        try {
+            while (records.hasRemaining()) {
+                byte type = records.get();
+                if (type == GameEventLog.ROUND) {
+                    round = records.getInt();
+                    rounds = round;
+                } else if (type == GameEventLog.SNAPSHOT) {
+                    int length = records.getInt();
+                    records.position(records.position() + length);
+                    snapshots.put(round, records.position() - length);
+                } else if (type == GameEventLog.COMMAND) {
+                    records.get();
+                    if (COMMANDS[records.get()].isInteractive() && handlerRound < 0) {
+                        handlerRound = round;
+                    }
+                } else {
+                    skip(records, type);
+                }
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            // the last record is incomplete, since the log was not closed
+            // properly; the records before it can still be replayed
+        }
+        if (handlerRound >= 0) {
+            throw new IllegalArgumentException("The option of an interactive card in round " + handlerRound +
+                    " was chosen by a command handler; the game cannot be replayed");
+        }
+    }
+
+    /**
+     * Returns the seed, with which the cards of the game were dealt.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the number of the last round, which was started in the log.
+     *
+     * @return the last round
+     */
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Restores the game at the beginning of the given round, after the
+     * cards were dealt and before the players programmed their registers.
+     *
+     * @param round the round
+     * @return the game
+     * @throws IllegalArgumentException if the round is not in the log
+     */
+    public Board seek(int round) {
+        return replay(round, -1);
+    }
+
+    /**
+     * Restores the game at the given register of the given round, before
+     * the register is executed. If the game was finished before, the
+     * finished game is returned.
+     *
+     * @param round the round
+     * @param register the register
+     * @return the game
+     * @throws IllegalArgumentException if the position is not in the log
+     */
+    public Board seek(int round, int register) {
+        if (register < 0 || register >= Player.NO_REGISTERS) {
+            throw new IllegalArgumentException("There is no register " + register);
+        }
+        return replay(round, register);
+    }
+
+    private Board replay(int round, int register) {
+        Map.Entry<Integer, Integer> snapshot = snapshots.floorEntry(round);
+        if (snapshot == null || round > rounds) {
+            throw new IllegalArgumentException("Round " + round + " is not in the log");
+        }
+        ByteBuffer records = log.duplicate();
+        int position = snapshot.getValue();
+        int length = records.getInt(position - 4);
+        Board board = GameSnapshotCodec.decode(records.slice(position, length));
+        records.position(position + length);
+
+        GameController gameController = new GameController(board, seed);
+        gameController.setRound(snapshot.getKey());
+        try {
+            while (true) {
+                switch (board.getPhase()) {
+                    case PROGRAMMING:
+                        if (gameController.getRound() == round && register < 0) {
+                            return board;
+                        }
+                        readPrograms(records, board);
+                        gameController.finishProgrammingPhase();
+                        break;
+                    case ACTIVATION:
+                        if (gameController.getRound() == round && board.getStep() == register &&
+                                board.getCurrentPlayer() == board.getPlayer(0)) {
+                            return board;
+                        }
+                        gameController.executeStep();
+                        break;
+                    case PLAYER_INTERACTION:
+                        gameController.executeCommandOptionAndContinue(readOption(records));
+                        break;
+                    default:
+                        return board;
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Round " + round + " is not complete in the log", e);
+        }
+    }
+
+    /**
+     * Reads the records up to the start of the next activation phase after
+     * the programming phase (the activation phase is also started again
+     * after an option was chosen), and puts the recorded cards into the
+     * registers and hands of the players.
+     */
+    private static void readPrograms(ByteBuffer records, Board board) {
+        int programmed = 0;
+        while (true) {
+            byte type = records.get();
+            if (type == GameEventLog.PROGRAMMED) {
+                programmed++;
+                Player player = board.getPlayer(records.get());
+                for (CommandCardField field : player.getProgram()) {
+                    getCard(records, field);
+                }
+                for (CommandCardField field : player.getCards()) {
+                    getCard(records, field);
+                }
+            } else if (type == GameEventLog.PHASE) {
+                if (PHASES[records.get()] == Phase.ACTIVATION && programmed == board.getPlayersNumber()) {
+                    return;
+                }
+            } else {
+                skip(records, type);
+            }
+        }
+    }
+
+    /**
+     * Reads the records up to the next option chosen by a player.
+     */
+    private static Command readOption(ByteBuffer records) {
+        while (true) {
+            byte type = records.get();
+            if (type == GameEventLog.OPTION) {
+                records.get();
+                return COMMANDS[records.get()];
+            }
+            skip(records, type);
+        }
+    }
+
+    private static void getCard(ByteBuffer records, CommandCardField field) {
+        int command = records.get();
+        field.setCard(command != GameEventLog.NONE ? CommandCard.of(COMMANDS[command]) : null);
+    }
+
+    /**
+     * Skips the data of a record of the given type.
+     */
+    private static void skip(ByteBuffer records, byte type) {
+        int size = switch (type) {
+            case GameEventLog.ROUND -> 4;
+            case GameEventLog.SNAPSHOT -> 4 + records.getInt(records.position());
+            case GameEventLog.PROGRAMMED -> 1 + Player.NO_REGISTERS + Player.NO_CARDS;
+            case GameEventLog.PHASE, GameEventLog.REGISTER -> 1;
+            case GameEventLog.COMMAND, GameEventLog.OPTION -> 2;
+            case GameEventLog.PUSH -> 4;
+            case GameEventLog.CHECKPOINT -> 5;
+            default -> throw new IllegalArgumentException("Unknown record type " + type + " in game event log");
+        };
+        records.position(records.position() + size);
+    }
+
+}
@@ -0,0 +1,437 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import dk.dtu.compute.se.pisd.roborally.fileaccess.LoadBoard;
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Encodes the state of a game (the board with its players) in a compact
+ * binary snapshot, and decodes it again. The layout of the board itself is
+ * not part of the snapshot; it is loaded from the JSON board of the same
+ * name, when the snapshot is decoded. A snapshot contains:
+ * <ul>
+ *     <li>the game id, a name for the game and the time it was created,</li>
+ *     <li>the board name, the phase, the step, the current player and the winner,</li>
+ *     <li>for every player, the name, colour, position, heading, the program
+ *     and hand fields, the deck, the discard pile and the collected
+ *     checkpoints.</li>
+ * </ul>
+ * Commands and headings are stored by their ordinals, positions by the cell
+ * of the space on the board. Snapshots of version 2, which do not contain
+ * the discard piles, can still be decoded.
+ *
+ */
+public final class GameSnapshotCodec {
+
+    private static final int MAGIC = 0x52525353; // "RRSS"
+
+    private static final short VERSION = 3;
+
+    /**
+     * The oldest version, which can still be decoded.
+     */
+    private static final short MIN_VERSION = 2;
+
+    /**
+     * The version, which added the discard piles.
+     */
+    private static final short DISCARD_VERSION = 3;
+
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private static final byte NONE = -1;
+
+    private static final Command[] COMMANDS = Command.values();
+
+    private static final Heading[] HEADINGS = Heading.values();
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private GameSnapshotCodec() {
+    }
+
+    /**
+     * Encodes a snapshot of the given game.
+     *
+     * @param game the game
+     * @param name the name of the game (or null)
+     * @param created the time when the game was created (or null)
+     * @return a buffer with the snapshot, ready to be read
+     */
+    public static ByteBuffer encode(@NotNull Board game, String name, Instant created) {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(game, name));
+        encode(game, name, created, buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Encodes a snapshot of the given game into the given buffer, which
+     * must have at least {@link #encodedSize(Board, String)} bytes remaining.
+     *
+     * @param game the game
+     * @param name the name of the game (or null)
+     * @param created the time when the game was created (or null)
+     * @param buffer the buffer
+     */
+    public static void encode(@NotNull Board game, String name, Instant created, @NotNull ByteBuffer buffer) {
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        Integer gameId = game.getGameId();
+        buffer.putInt(gameId != null ? gameId : NONE);
+        buffer.putLong(created != null ? created.toEpochMilli() : NO_TIME);
+        putString(buffer, name);
+        putString(buffer, game.boardName);
+        buffer.put((byte) game.getPlayersNumber());
+
+        buffer.put((byte) game.getPhase().ordinal());
+        buffer.put((byte) game.getStep());
+        buffer.put(game.isStepMode() ? (byte) 1 : (byte) 0);
+        buffer.put(playerNumber(game, game.getCurrentPlayer()));
+        buffer.put(playerNumber(game, game.getWinner()));
+
+        for (Player player : game.getPlayers()) {
+            putString(buffer, player.getName());
+            putString(buffer, player.getColor());
+            buffer.putInt(player.getPlayerId());
+            Space space = player.getSpace();
+            buffer.putInt(space != null ? space.cell : NONE);
+            buffer.put((byte) player.getHeading().ordinal());
+            for (CommandCardField field : player.getProgram()) {
+                putField(buffer, field);
+            }
+            for (CommandCardField field : player.getCards()) {
+                putField(buffer, field);
+            }
+            putPile(buffer, player.getCardDeck());
+            putPile(buffer, player.getDiscardPile());
+            Set<Integer> checkpoints = player.getCollectedCheckpoints();
+            buffer.put((byte) checkpoints.size());
+            for (int checkpoint : checkpoints) {
+                buffer.putInt(checkpoint);
+            }
+        }
+    }
+
+    /**
+     * Computes the number of bytes of the snapshot of the given game.
+     *
+     * @param game the game
+     * @param name the name of the game (or null)
+     * @return the size of the snapshot in bytes
+     */
+    public static int encodedSize(@NotNull Board game, String name) {
+        int size = 4 + 2 + 4 + 8 + stringSize(name) + stringSize(game.boardName) + 1 + 5;
+        for (Player player : game.getPlayers()) {
+            size += stringSize(player.getName()) + stringSize(player.getColor());
+            size += 4 + 4 + 1;
+            size += 2 * (Player.NO_REGISTERS + Player.NO_CARDS);
+            size += 2 + player.getCardDeck().size() + 2 + player.getDiscardPile().size();
+            size += 1 + 4 * player.getCollectedCheckpoints().size();
+        }
+        return size;
+    }
+
+    /**
+     * Decodes a snapshot. The board is loaded by the board name of the
+     * snapshot and the players are restored on it.
+     *
+     * @param buffer the buffer with the snapshot
+     * @return the game
+     * @throws IllegalArgumentException if the buffer does not contain a valid snapshot
+     */
+    public static Board decode(@NotNull ByteBuffer buffer) {
+        try {
+            int version = buffer.getShort(buffer.position() + 4);
+            GameInDB header = readHeader(buffer);
+            Board game = LoadBoard.loadBoard(header.boardName);
+            if (header.id != NONE) {
+                game.setGameId(header.id);
+            }
+            readGame(buffer, version, game, header.noOfPlayers, true);
+            return game;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Corrupt game snapshot", e);
+        }
+    }
+
+    /**
+     * Restores the state of a game from a snapshot onto the given board,
+     * which must have been decoded from an earlier snapshot of the same game
+     * (so that it has the same board and players). Only the state which is
+     * different in the snapshot is changed on the board; in particular,
+     * cards of fields and decks are replaced only if their commands differ.
+     *
+     * @param buffer the buffer with the snapshot
+     * @param game the game
+     * @throws IllegalArgumentException if the buffer does not contain a valid snapshot of the game
+     */
+    public static void restore(@NotNull ByteBuffer buffer, @NotNull Board game) {
+        try {
+            int version = buffer.getShort(buffer.position() + 4);
+            GameInDB header = readHeader(buffer);
+            if (!game.boardName.equals(header.boardName)) {
+                throw new IllegalArgumentException("Snapshot of a game on another board");
+            }
+            readGame(buffer, version, game, header.noOfPlayers, false);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Corrupt game snapshot", e);
+        }
+    }
+
+    private static void readGame(ByteBuffer buffer, int version, Board game, int noOfPlayers, boolean create) {
+        int phase = buffer.get();
+        int step = buffer.get();
+        boolean stepMode = buffer.get() != 0;
+        int current = buffer.get();
+        int winner = buffer.get();
+
+        if (!create && noOfPlayers != game.getPlayersNumber()) {
+            throw new IllegalArgumentException("Snapshot of a game with other players");
+        }
+        int[] cells = new int[noOfPlayers];
+        for (int i = 0; i < noOfPlayers; i++) {
+            String name = getString(buffer);
+            String color = getString(buffer);
+            int playerId = buffer.getInt();
+            Player player;
+            if (create) {
+                player = new Player(game, color, name != null ? name : "Player " + (i + 1));
+                game.addPlayer(player);
+            } else {
+                player = game.getPlayer(i);
+                player.setName(name);
+                if (!Objects.equals(color, player.getColor())) {
+                    player.setColor(color);
+                }
+            }
+            player.setPlayerId(playerId);
+            cells[i] = buffer.getInt();
+            player.setHeading(HEADINGS[buffer.get()]);
+            for (CommandCardField field : player.getProgram()) {
+                getField(buffer, field);
+            }
+            for (CommandCardField field : player.getCards()) {
+                getField(buffer, field);
+            }
+            getPile(buffer, player.getCardDeck());
+            if (version >= DISCARD_VERSION) {
+                getPile(buffer, player.getDiscardPile());
+            } else {
+                player.getDiscardPile().clear();
+            }
+            int checkpoints = buffer.get();
+            if (!create && !hasCheckpoints(buffer, checkpoints, player)) {
+                player.clearCollectedCheckpoints();
+            }
+            for (int j = 0; j < checkpoints; j++) {
+                player.collectedCheckpoints(buffer.getInt());
+            }
+        }
+
+        // The players which moved are taken off the board first, so that
+        // no player is put on a space which another player still occupies.
+        for (int i = 0; i < noOfPlayers; i++) {
+            Player player = game.getPlayer(i);
+            if (player.getSpace() != null && player.getSpace().cell != cells[i]) {
+                player.setSpace(null);
+            }
+        }
+        for (int i = 0; i < noOfPlayers; i++) {
+            Player player = game.getPlayer(i);
+            if (player.getSpace() == null && cells[i] != NONE) {
+                player.setSpace(game.getSpace(cells[i]));
+            }
+        }
+
+        game.setPhase(PHASES[phase]);
+        game.setStep(step);
+        game.setStepMode(stepMode);
+        game.setCurrentPlayer(current != NONE ? game.getPlayer(current) : null);
+        game.setWinner(winner != NONE ? game.getPlayer(winner) : null);
+    }
+
+    /**
+     * Checks whether the player has collected exactly the given number of
+     * checkpoints, which follow in the buffer (without consuming them).
+     */
+    private static boolean hasCheckpoints(ByteBuffer buffer, int checkpoints, Player player) {
+        Set<Integer> collected = player.getCollectedCheckpoints();
+        if (collected.size() != checkpoints) {
+            return false;
+        }
+        for (int j = 0; j < checkpoints; j++) {
+            if (!collected.contains(buffer.getInt(buffer.position() + 4 * j))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the header of a snapshot from the given buffer, without decoding
+     * the rest of the snapshot. The header contains the game id, the name of
+     * the game, the name of the board, the time the game was created and the
+     * number of players.
+     *
+     * @param buffer the buffer with the snapshot
+     * @return the header
+     * @throws IllegalArgumentException if the buffer does not contain a snapshot
+     */
+    public static GameInDB readHeader(@NotNull ByteBuffer buffer) {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a game snapshot");
+            }
+            short version = buffer.getShort();
+            if (version < MIN_VERSION || version > VERSION) {
+                throw new IllegalArgumentException("Unsupported version " + version + " of game snapshot");
+            }
+            int gameId = buffer.getInt();
+            long created = buffer.getLong();
+            String name = getString(buffer);
+            String boardName = getString(buffer);
+            int noOfPlayers = buffer.get();
+            return new GameInDB(gameId, name, boardName,
+                    created != NO_TIME ? Instant.ofEpochMilli(created) : null, noOfPlayers);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Corrupt game snapshot", e);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the given game to the given file, which is
+     * created or replaced.
+     *
+     * @param game the game
+     * @param name the name of the game (or null)
+     * @param created the time when the game was created (or null)
+     * @param file the file
+     * @throws IOException if the file could not be written
+     */
+    public static void write(@NotNull Board game, String name, Instant created, @NotNull Path file) throws IOException {
+        ByteBuffer buffer = encode(game, name, created);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Reads the snapshot from the given file completely.
+     *
+     * @param file the file
+     * @return a buffer with the snapshot, ready to be decoded
+     * @throws IOException if the file could not be read
+     */
+    public static ByteBuffer read(@NotNull Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read until the buffer is full
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    private static byte playerNumber(Board game, Player player) {
+        return player != null ? (byte) game.getPlayerNumber(player) : NONE;
+    }
+
+    private static void putField(ByteBuffer buffer, CommandCardField field) {
+        CommandCard card = field.getCard();
+        buffer.put(card != null ? (byte) card.command.ordinal() : NONE);
+        buffer.put(field.isVisible() ? (byte) 1 : (byte) 0);
+    }
+
+    private static void getField(ByteBuffer buffer, CommandCardField field) {
+        int command = buffer.get();
+        CommandCard card = field.getCard();
+        if (command == NONE) {
+            field.setCard(null);
+        } else if (card == null || card.command.ordinal() != command) {
+            field.setCard(CommandCard.of(COMMANDS[command]));
+        }
+        field.setVisible(buffer.get() != 0);
+    }
+
+    private static void putPile(ByteBuffer buffer, CardPile pile) {
+        buffer.putShort((short) pile.size());
+        for (int j = 0; j < pile.size(); j++) {
+            buffer.put((byte) pile.get(j).command.ordinal());
+        }
+    }
+
+    private static void getPile(ByteBuffer buffer, CardPile pile) {
+        int size = buffer.getShort();
+        int start = buffer.position();
+        boolean same = size == pile.size();
+        for (int j = 0; same && j < size; j++) {
+            same = pile.get(j).command.ordinal() == buffer.get(start + j);
+        }
+        if (!same) {
+            pile.clear();
+            for (int j = 0; j < size; j++) {
+                pile.push(CommandCard.of(COMMANDS[buffer.get(start + j)]));
+            }
+        }
+        buffer.position(start + size);
+    }
+
+    private static int stringSize(String string) {
+        return string != null ? 2 + utf8Length(string) : 2;
+    }
+
+    private static int utf8Length(String string) {
+        int length = 0;
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static void putString(ByteBuffer buffer, String string) {
+        if (string == null) {
+            buffer.putShort(NONE);
+        } else {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length == NONE) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -24,7 +24,11 @@ package dk.dtu.compute.se.pisd.roborally.dal;
 import dk.dtu.compute.se.pisd.roborally.model.Board;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
 
 /**
  * ...
@@ -42,5 +46,69 @@ public interface IRepository {
 	
 	List<GameInDB> getGames();
 
+	/**
+	 * Returns a page of the games matching the given filter, sorted by
+	 * descending ids (newest first). The next page is obtained by passing
+	 * the id of the last game of the previous page as <code>afterId</code>
+	 * (keyset pagination), so that pages are stable even if games are
+	 * created in between.<p></p>
+	 *
+	 * The default implementation filters the result of {@link #getGames()};
+	 * repositories should override it with a more efficient one.
+	 *
+	 * @param filter the filter
+	 * @param afterId only games with a smaller id are returned; null for the
+	 *                first page
+	 * @param limit the maximum number of games
+	 * @return the games of the page
+	 */
+	default List<GameInDB> getGames(GameFilter filter, Integer afterId, int limit) {
+		NavigableMap<Integer, GameInDB> games = new TreeMap<>();
+		for (GameInDB game : getGames()) {
+			if (afterId == null || game.id < afterId) {
+				games.put(game.id, game);
+			}
+		}
+		return GameFilter.page(games, filter, limit);
+	}
+
+	/**
+	 * Returns an iterator over all games matching the given filter, sorted
+	 * by descending ids. The games are fetched lazily from the repository,
+	 * one page at a time (see {@link #getGames(GameFilter, Integer, int)}).
+	 *
+	 * @param filter the filter
+	 * @param pageSize the number of games fetched at a time
+	 * @return an iterator over the games
+	 */
+	default Iterator<GameInDB> iterateGames(GameFilter filter, int pageSize) {
+		return new Iterator<>() {
+
+			private List<GameInDB> page;
+			private int next;
+			private boolean last;
+
+			@Override
+			public boolean hasNext() {
+				if (page == null || (next == page.size() && !last)) {
+					Integer afterId = page == null || page.isEmpty() ? null : page.get(page.size() - 1).id;
+					page = getGames(filter, afterId, pageSize);
+					next = 0;
+					last = page.size() < pageSize;
+				}
+				return next < page.size();
+			}
+
+			@Override
+			public GameInDB next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return page.get(next++);
+			}
+
+		};
+	}
+
 	ArrayList<Integer> getGameIds();
 }
@@ -0,0 +1,309 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * A repository, which stores all games in a single append-only log file.
+ * Every save appends a record with a binary snapshot of the game (see
+ * {@link GameSnapshotCodec}) to the end of the log; an index in memory knows
+ * the position of the latest record of every game. The index is rebuilt by
+ * reading the log when the repository is opened; an incomplete or corrupt
+ * record at the end of the log (for example after a crash) is cut off.<p></p>
+ *
+ * A record consists of the length of the snapshot, a CRC32 checksum of the
+ * snapshot and the snapshot itself. When the log contains more outdated
+ * records than current ones, it is compacted, i.e. rewritten with the latest
+ * record of every game only.
+ *
+ */
+public class LogRepository implements IRepository, AutoCloseable {
+
+    private static final int RECORD_HEADER = 8;
+
+    /**
+     * The log is not compacted as long as it is smaller than this.
+     */
+    private static final long MIN_COMPACTION_SIZE = 1 << 20;
+
+    /**
+     * The latest record of a game in the log.
+     */
+    private static final class Entry {
+
+        private final GameInDB game;
+        private final long position;
+        private final int length;
+
+        private Entry(GameInDB game, long position, int length) {
+            this.game = game;
+            this.position = position;
+            this.length = length;
+        }
+
+    }
+
+    private final Path file;
+
+    private FileChannel channel;
+
+    private final NavigableMap<Integer, Entry> index = new TreeMap<>();
+
+    /**
+     * The information on the games of the index, by their ids.
+     */
+    private final NavigableMap<Integer, GameInDB> games = new TreeMap<>();
+
+    private int lastGameId;
+
+    /**
+     * The number of bytes of the records, which are the latest of their game.
+     */
+    private long liveBytes;
+
+    /**
+     * Opens the repository with the given log file; the file is created,
+     * if it does not exist yet.
+     *
+     * @param file the log file
+     * @throws IOException if the log could not be opened or read
+     */
+    public LogRepository(@NotNull Path file) throws IOException {
+        this.file = file;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        readIndex();
+    }
+
+    private void readIndex() throws IOException {
+        long position = 0;
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+        while (position + RECORD_HEADER <= size) {
+            header.clear();
+            readFully(header, position);
+            header.flip();
+            int length = header.getInt();
+            int checksum = header.getInt();
+            if (length <= 0 || position + RECORD_HEADER + length > size) {
+                break;
+            }
+            ByteBuffer snapshot = ByteBuffer.allocate(length);
+            readFully(snapshot, position + RECORD_HEADER);
+            snapshot.flip();
+            if (checksum(snapshot) != checksum) {
+                break;
+            }
+            try {
+                GameInDB game = GameSnapshotCodec.readHeader(snapshot);
+                add(game.id, new Entry(game, position, length));
+            } catch (IllegalArgumentException e) {
+                break;
+            }
+            position += RECORD_HEADER + length;
+        }
+        if (position < size) {
+            System.err.println("Cutting off " + (size - position) + " bytes of an incomplete record from " + file);
+            channel.truncate(position);
+        }
+        channel.position(position);
+    }
+
+    private void add(int gameId, Entry entry) {
+        Entry old = index.put(gameId, entry);
+        games.put(gameId, entry.game);
+        if (old != null) {
+            liveBytes -= RECORD_HEADER + old.length;
+        }
+        liveBytes += RECORD_HEADER + entry.length;
+        lastGameId = Math.max(lastGameId, gameId);
+    }
+
+    @Override
+    public synchronized boolean createGameInDB(Board game) {
+        if (game.getGameId() != null) {
+            System.err.println("Game cannot be created in DB, since it has a game id already!");
+            return false;
+        }
+        int id = lastGameId + 1;
+        game.setGameId(id);
+        return append(game, new GameInDB(id, "Date: " + new Date(), game.boardName, Instant.now(), game.getPlayersNumber()));
+    }
+
+    @Override
+    public synchronized boolean updateGameInDB(Board game) {
+        assert game.getGameId() != null;
+
+        Entry entry = index.get(game.getGameId());
+        return append(game, entry != null ? entry.game :
+                new GameInDB(game.getGameId(), null, game.boardName, null, game.getPlayersNumber()));
+    }
+
+    /**
+     * Appends a record with a snapshot of the given game to the log. If the
+     * record could not be written completely, the log is cut off again where
+     * the record started, so that the log does not end with a torn record.
+     *
+     * @throws RepositoryException if the record could not be written
+     */
+    private boolean append(Board game, GameInDB info) {
+        ByteBuffer snapshot = GameSnapshotCodec.encode(game, info.name, info.created);
+        int length = snapshot.remaining();
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + length);
+        record.putInt(length);
+        record.putInt(checksum(snapshot));
+        record.put(snapshot);
+        record.flip();
+        long position;
+        try {
+            position = channel.size();
+        } catch (IOException e) {
+            throw new RepositoryException("The game could not be written to " + file, e);
+        }
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record, position + record.position());
+            }
+        } catch (IOException e) {
+            try {
+                channel.truncate(position);
+            } catch (IOException truncateFailure) {
+                e.addSuppressed(truncateFailure);
+            }
+            throw new RepositoryException("The game could not be written to " + file, e);
+        }
+        add(info.id, new Entry(info, position, length));
+        try {
+            if (channel.size() > MIN_COMPACTION_SIZE && channel.size() > 2 * liveBytes) {
+                compact();
+            }
+        } catch (IOException e) {
+            // the game was saved nevertheless; the log stays as it is and
+            // is compacted with one of the next saves
+            System.err.println("The log " + file + " could not be compacted: " + e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws RepositoryException if the record of the game could not be read
+     */
+    @Override
+    public synchronized Board loadGameFromDB(int id) {
+        Entry entry = index.get(id);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            ByteBuffer snapshot = ByteBuffer.allocate(entry.length);
+            readFully(snapshot, entry.position + RECORD_HEADER);
+            snapshot.flip();
+            return GameSnapshotCodec.decode(snapshot);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new RepositoryException("Game " + id + " could not be read from " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized List<GameInDB> getGames() {
+        return new ArrayList<>(games.values());
+    }
+
+    @Override
+    public synchronized List<GameInDB> getGames(@NotNull GameFilter filter, Integer afterId, int limit) {
+        return GameFilter.page(afterId == null ? games : games.headMap(afterId, false), filter, limit);
+    }
+
+    @Override
+    public synchronized ArrayList<Integer> getGameIds() {
+        return new ArrayList<>(index.keySet());
+    }
+
+    /**
+     * Rewrites the log with the latest record of every game only.
+     *
+     * @throws IOException if the log could not be rewritten
+     */
+    public synchronized void compact() throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        Map<Integer, Entry> moved = new TreeMap<>();
+        try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = 0;
+            for (Map.Entry<Integer, Entry> game : index.entrySet()) {
+                Entry entry = game.getValue();
+                long count = RECORD_HEADER + entry.length;
+                long transferred = 0;
+                while (transferred < count) {
+                    transferred += channel.transferTo(entry.position + transferred, count - transferred, target);
+                }
+                moved.put(game.getKey(), new Entry(entry.game, position, entry.length));
+                position += count;
+            }
+        }
+        channel.close();
+        try {
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // go on with the old log
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Files.deleteIfExists(compacted);
+            throw e;
+        }
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        index.clear();
+        index.putAll(moved);
+    }
+
+    /**
+     * Returns the size of the log in bytes.
+     *
+     * @return the size of the log
+     * @throws IOException if the size could not be determined
+     */
+    public synchronized long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of " + file);
+            }
+        }
+    }
+
+    private static int checksum(ByteBuffer snapshot) {
+        CRC32 crc = new CRC32();
+        crc.update(snapshot.duplicate());
+        return (int) crc.getValue();
+    }
+
+}
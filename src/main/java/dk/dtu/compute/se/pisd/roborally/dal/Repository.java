@@ -28,7 +28,6 @@ import java.sql.*;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.Stack;
 
 /**
  * ...
@@ -49,6 +48,10 @@ class Repository implements IRepository {
 	private static final String GAME_PHASE = "phase";
 
 	private static final String GAME_STEP = "step";
+
+	private static final String GAME_CREATED = "created";
+
+	private static final String GAME_NO_OF_PLAYERS = "noOfPlayers";
 	
 	private static final String PLAYER_PLAYERID = "playerID";
 	
@@ -92,7 +95,7 @@ class Repository implements IRepository {
 
 	private static final String CARDSTACK_TYPE = "type";
 
-	private Connector connector;
+	private final Connector connector;
 
 	/**
 	 * Constructs a Repository instance which acts as a bridge between the game's data model and the database.
@@ -104,17 +107,34 @@ class Repository implements IRepository {
 		this.connector = connector;
 	}
 
+	/**
+	 * Acquires a connection from the pool of the connector for the current
+	 * thread; all statements of this repository are prepared on (and cached
+	 * for) this connection, until it is closed again.
+	 * @return the connection
+	 * @throws RepositoryException if no connection could be established
+	 */
+	private ConnectionPool.PooledConnection acquire() {
+		try {
+			return connector.acquire();
+		} catch (SQLException e) {
+			throw new RepositoryException("No connection to the database", e);
+		}
+	}
+
 	/**
 	 * Creates a new game in the database with the current state of the Board game.
 	 * It saves the game's basic information along with the state of each player.
 	 * * @param game The game state to be saved into the database.
 	 * * @return true if the game was successfully created in the database, false otherwise.
+	 * @throws RepositoryException if there is no connection to the database
 	 * @author Anton Fu Hou Dong, @s235460
 	 */
 	@Override
 	public boolean createGameInDB(Board game) {
 		if (game.getGameId() == null) {
-			Connection connection = connector.getConnection();
+			ConnectionPool.PooledConnection pooled = acquire();
+			Connection connection = pooled.connection;
 			try {
 				connection.setAutoCommit(false);
 				PreparedStatement ps = getInsertGameStatementRGK();
@@ -125,6 +145,8 @@ class Repository implements IRepository {
 				ps.setNull(2, Types.TINYINT); // game.getPlayerNumber(game.getCurrentPlayer())); is inserted after players!
 				ps.setInt(3, game.getPhase().ordinal());
 				ps.setInt(4, game.getStep());
+				ps.setString(5, game.boardName);
+				ps.setInt(6, game.getPlayersNumber());
 				// If you have a foreign key constraint for current players,
 				// the check would need to be temporarily disabled, since
 				// MySQL does not have a per transaction validation, but
@@ -162,6 +184,7 @@ class Repository implements IRepository {
 				rs.close();
 				connection.commit();
 				connection.setAutoCommit(true);
+				markClean(game);
 				return true;
 			} catch (SQLException e) {
 				e.printStackTrace();
@@ -173,6 +196,8 @@ class Repository implements IRepository {
 				} catch (SQLException e1) {
 					e1.printStackTrace();
 				}
+			} finally {
+				pooled.close();
 			}
 		} else {
 			System.err.println("Game cannot be created in DB, since it has a game id already!");
@@ -182,33 +207,32 @@ class Repository implements IRepository {
 
 	/**
 	 * Updates the state of the game in the database to reflect the current status of the Board instance.
-	 * This includes updating the current player, game phase, and step.
+	 * This includes updating the current player, game phase, and step. Only the players, card fields
+	 * and decks which changed since the game was saved or loaded the last time are written; the
+	 * changed rows of each table are sent to the database in one batch.
 	 * @param game The current state of the game to update in the database.
 	 * @return true if the update was successful, false otherwise.
+	 * @throws RepositoryException if there is no connection to the database
 	 * @author Anton Fu Hou Dong, @s235460
 	 */
 	@Override
 	public boolean updateGameInDB(Board game) {
 		assert game.getGameId() != null;
 		
-		Connection connection = connector.getConnection();
+		ConnectionPool.PooledConnection pooled = acquire();
+		Connection connection = pooled.connection;
 		try {
 			connection.setAutoCommit(false);
 
-			PreparedStatement ps = getSelectGameStatementU();
-			ps.setInt(1, game.getGameId());
-			
-			ResultSet rs = ps.executeQuery();
-			if (rs.next()) {
-				rs.updateInt(GAME_CURRENTPLAYER, game.getPlayerNumber(game.getCurrentPlayer()));
-				rs.updateInt(GAME_PHASE, game.getPhase().ordinal());
-				rs.updateInt(GAME_STEP, game.getStep());
-				rs.updateString(BOARD_NAME, LoadBoard.getGameBoard());
-				rs.updateRow();
-			} else {
-				// TODO error handling
+			PreparedStatement ps = getUpdateGameStatement();
+			ps.setInt(1, game.getPlayerNumber(game.getCurrentPlayer()));
+			ps.setInt(2, game.getPhase().ordinal());
+			ps.setInt(3, game.getStep());
+			ps.setString(4, game.boardName);
+			ps.setInt(5, game.getGameId());
+			if (ps.executeUpdate() != 1) {
+				throw new SQLException("Game " + game.getGameId() + " does not exist in the database");
 			}
-			rs.close();
 			updatePlayersInDB(game);
 			// update card stack
 			updateCardStacksInDB(game);
@@ -216,6 +240,7 @@ class Repository implements IRepository {
 			updateCardFieldsInDB(game);
             connection.commit();
             connection.setAutoCommit(true);
+			markClean(game);
 			return true;
 		} catch (SQLException e) {
 			// TODO error handling
@@ -229,6 +254,8 @@ class Repository implements IRepository {
 				// TODO error handling
 				e1.printStackTrace();
 			}
+		} finally {
+			pooled.close();
 		}
 		return false;
 	}
@@ -236,67 +263,65 @@ class Repository implements IRepository {
 	/**
 	 * Loads a game from the database using the specified game ID.
 	 * It reconstructs the game state, including the board, players, and their positions.
+	 * The game, its players, card fields and card stacks are fetched with a single
+	 * query (see {@link #SQL_SELECT_GAME_ROWS}), whose rows are decoded one after
+	 * the other; the board itself is created from the cached template of the board
+	 * (see {@link LoadBoard#loadBoard(String)}).
 	 * @param id The unique identifier of the game to load from the database.
 	 * @return The loaded game as a Board instance, or null if the game could not be loaded.
+	 * @throws RepositoryException if there is no connection to the database
 	 * @author Anton Fu Hou Dong, @s235460
 	 */
 	@Override
 	public Board loadGameFromDB(int id) {
-		Board game;
+		ConnectionPool.PooledConnection pooled = acquire();
 		try {
-			// TODO here, we could actually use a simpler statement
-			//      which is not updatable, but reuse the one from
-			//      above for the pupose
-			PreparedStatement ps = getSelectGameStatementU();
-			ps.setInt(1, id);
-			ResultSet rs = ps.executeQuery();
+			PreparedStatement ps = getSelectGameRowsStatement();
+			for (int i = 1; i <= 4; i++) {
+				ps.setInt(i, id);
+			}
+			Board game = null;
 			int playerNo = -1;
-			if (rs.next()) {
-				// TODO the width and height could eventually come from the database
-				// int width = AppController.BOARD_WIDTH;
-				// int height = AppController.BOARD_HEIGHT;
-				// game = new Board(width,height);
-				// TODO and we should also store the used game board in the database
-				//      for now, we use the default game board
-				game = LoadBoard.loadBoard(rs.getString(BOARD_NAME));
-				if (game == null) {
-					game = LoadBoard.loadBoard(null);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					int kind = rs.getInt(1);
+					if (kind == ROW_GAME) {
+						game = LoadBoard.loadBoard(rs.getString(9));
+						if (game == null) {
+							game = LoadBoard.loadBoard(null);
+						}
+						game.setGameId(id);
+						playerNo = rs.getInt(2);
+						if (rs.wasNull()) {
+							playerNo = -1;
+						}
+						game.setPhase(Phase.values()[rs.getInt(3)]);
+						game.setStep(rs.getInt(4));
+					} else if (game == null) {
+						// TODO error handling
+						return null;
+					} else if (kind == ROW_PLAYER) {
+						loadPlayer(game, rs);
+					} else if (kind == ROW_CARD_FIELD) {
+						loadCardField(game, rs);
+					} else if (kind == ROW_CARD_STACK) {
+						loadCardStack(game, rs);
+					}
 				}
-				playerNo = rs.getInt(GAME_CURRENTPLAYER);
-				// TODO currently we do not set the games name (needs to be added)
-				game.setPhase(Phase.values()[rs.getInt(GAME_PHASE)]);
-				game.setStep(rs.getInt(GAME_STEP));
-			} else {
-				// TODO error handling
-				return null;
 			}
-			rs.close();
-			game.setGameId(id);			
-			loadPlayersFromDB(game);
-			if (playerNo >= 0 && playerNo < game.getPlayersNumber()) {
-				game.setCurrentPlayer(game.getPlayer(playerNo));
-			} else {
-				// TODO  error handling
-				return null;
-			}
-			// load card stack
-			loadCardStackFromDB(game);
-			// load card field
-			loadCardFieldsFromDB(game);
-			if (playerNo >= 0 && playerNo < game.getPlayersNumber()) {
-				game.setCurrentPlayer(game.getPlayer(playerNo));
-			} else {
+			if (game == null || playerNo < 0 || playerNo >= game.getPlayersNumber()) {
+				// TODO error handling
 				return null;
 			}
-
-			/* TOODO this method needs to be implemented first
-			loadCardFieldsFromDB(game);
-			*/
+			game.setCurrentPlayer(game.getPlayer(playerNo));
+			markClean(game);
 			return game;
 		} catch (SQLException e) {
 			// TODO error handling
 			e.printStackTrace();
 			System.err.println("Some DB error");
+		} finally {
+			pooled.close();
 		}
 		return null;
 	}
@@ -312,11 +337,11 @@ class Repository implements IRepository {
 		int id;
 		String name;
 		ResultSet rs;
-		// TODO when there many games in the DB, fetching all available games
-		//      from the DB is a bit extreme; eventually there should a
-		//      methods that can filter the returned games in order to
-		//      reduce the number of the returned games.
+		// when there are many games in the DB, fetching all available games
+		// from the DB is a bit extreme; use getGames(GameFilter, Integer, int)
+		// for fetching the games page by page instead.
 		List<GameInDB> result = new ArrayList<>();
+		ConnectionPool.PooledConnection pooled = acquire();
 		try {
 			PreparedStatement ps = getSelectGameIdsStatement();
 			rs = ps.executeQuery();
@@ -329,10 +354,64 @@ class Repository implements IRepository {
 		} catch (SQLException e) {
 			// TODO proper error handling
 			e.printStackTrace();
+		} finally {
+			pooled.close();
 		}
 		return result;		
 	}
 
+	/**
+	 * Retrieves a page of the games matching the given filter from the
+	 * database, newest first. Only the games of the page are fetched from the
+	 * database; the next page starts after the id of the last game (keyset
+	 * pagination), so the database does not need to skip the games of the
+	 * previous pages.
+	 * @param filter the filter
+	 * @param afterId only games with a smaller id are returned; null for the first page
+	 * @param limit the maximum number of games
+	 * @return the games of the page
+	 */
+	@Override
+	public List<GameInDB> getGames(GameFilter filter, Integer afterId, int limit) {
+		List<GameInDB> result = new ArrayList<>();
+		ConnectionPool.PooledConnection pooled = acquire();
+		try {
+			PreparedStatement ps = getSelectGamesPageStatement(filter);
+			int i = 1;
+			ps.setInt(i++, afterId != null ? afterId : Integer.MAX_VALUE);
+			if (filter.boardName != null) {
+				ps.setString(i++, filter.boardName);
+			}
+			if (filter.createdFrom != null) {
+				ps.setTimestamp(i++, Timestamp.from(filter.createdFrom));
+			}
+			if (filter.createdTo != null) {
+				ps.setTimestamp(i++, Timestamp.from(filter.createdTo));
+			}
+			if (filter.noOfPlayers != null) {
+				ps.setInt(i++, filter.noOfPlayers);
+			}
+			ps.setInt(i, limit);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					Timestamp created = rs.getTimestamp(GAME_CREATED);
+					result.add(new GameInDB(
+							rs.getInt(GAME_GAMEID),
+							rs.getString(GAME_NAME),
+							rs.getString(BOARD_NAME),
+							created != null ? created.toInstant() : null,
+							rs.getInt(GAME_NO_OF_PLAYERS)));
+				}
+			}
+		} catch (SQLException e) {
+			// TODO proper error handling
+			e.printStackTrace();
+		} finally {
+			pooled.close();
+		}
+		return result;
+	}
+
 	/**
 	 * Saves the state of all players in the game into the database.
 	 * This includes their position, color, and other relevant attributes.
@@ -408,74 +487,44 @@ class Repository implements IRepository {
 		rs.close();
 	}
 
+
 	/**
-	 * Loads player data from the database for the specified game and populates the game's player list.
-	 * This method retrieves player information such as name, color, position, and heading from the database
-	 * and creates Player objects accordingly, adding them to the game.
-	 * @param game The game object for which players are being loaded from the database.
-	 * @throws SQLException If a database access error occurs or this method is called on a closed connection.
+	 * Updates the database with the current state of all players in the game, which
+	 * changed since the game was saved the last time.
+	 * This method should be called to save the latest changes made to players' states.
+	 * @param game The game whose players' states are to be updated in the database.
+	 * @throws SQLException If there is an error during the database update process.
 	 * @author Anton Fu Hou Dong, @s235460
 	 */
-	private void loadPlayersFromDB(Board game) throws SQLException {
-		String name, colour;
-		Player player;
-		int playerId;
-		int x, y, heading;
-		PreparedStatement ps = getSelectPlayersASCStatement();
-		ps.setInt(1, game.getGameId());
-		ResultSet rs = ps.executeQuery();
-		int i = 0;
-		while (rs.next()) {
-			playerId = rs.getInt(PLAYER_PLAYERID);
-			if (i++ == playerId) {
-				// TODO this should be more defensive
-				name = rs.getString(PLAYER_NAME);
-				colour = rs.getString(PLAYER_COLOUR);
-				player = new Player(game, colour ,name);
-				game.addPlayer(player);
-				x = rs.getInt(PLAYER_POSITION_X);
-				y = rs.getInt(PLAYER_POSITION_Y);
-				player.setSpace(game.getSpace(x,y));
-				heading = rs.getInt(PLAYER_HEADING);
-				player.setHeading(Heading.values()[heading]);
-				// TODO  should also load players program and hand here
-			} else {
-				// TODO error handling
-				System.err.println("Game in DB does not have a player with id " + i +"!");
+	private void updatePlayersInDB(Board game) throws SQLException {
+		PreparedStatement ps = getUpdatePlayerStatement();
+		boolean changed = false;
+		for (int i = 0; i < game.getPlayersNumber(); i++) {
+			Player player = game.getPlayer(i);
+			if (player.isDirty()) {
+				ps.setInt(1, player.getSpace().x);
+				ps.setInt(2, player.getSpace().y);
+				ps.setInt(3, player.getHeading().ordinal());
+				ps.setInt(4, player.getCollectedTokens());
+				ps.setInt(5, game.getGameId());
+				ps.setInt(6, i);
+				ps.addBatch();
+				changed = true;
 			}
 		}
-		rs.close();
+		if (changed) {
+			ps.executeBatch();
+		}
 	}
 
 	/**
-	 * Updates the database with the current state of all players in the game.
-	 * This method should be called to save the latest changes made to players' states.
-	 * @param game The game whose players' states are to be updated in the database.
-	 * @throws SQLException If there is an error during the database update process.
-	 * @author Anton Fu Hou Dong, @s235460
+	 * Marks all players of the game (with their fields and decks) as saved.
+	 * @param game the game
 	 */
-	private void updatePlayersInDB(Board game) throws SQLException {
-		Player player;
-		int playerId;
-		PreparedStatement ps = getSelectPlayersStatementU();
-		ps.setInt(1, game.getGameId());
-		ResultSet rs = ps.executeQuery();
-		while (rs.next()) {
-			playerId = rs.getInt(PLAYER_PLAYERID);
-			// TODO should be more defensive
-			player = game.getPlayer(playerId);
-			// rs.updateString(PLAYER_NAME, player.getName()); // not needed: player's names does not change
-			rs.updateInt(PLAYER_POSITION_X, player.getSpace().x);
-			rs.updateInt(PLAYER_POSITION_Y, player.getSpace().y);
-			rs.updateInt(PLAYER_HEADING, player.getHeading().ordinal());
-			rs.updateInt(CHECK_POINT_TOKENs, player.getCollectedTokens());
-			// TODO error handling
-			// TODO take care of case when number of players changes, etc
-			rs.updateRow();
+	private void markClean(Board game) {
+		for (Player player : game.getPlayers()) {
+			player.markClean();
 		}
-		rs.close();
-		
-		// TODO error handling/consistency check: check whether all players were updated
 	}
 
 	/**
@@ -484,110 +533,135 @@ class Repository implements IRepository {
 	 * phase, and step.
 	 * @author Anton Fu Hou Dong, @s235460
 	 */
-	private static final String SQL_INSERT_GAME = "INSERT INTO Game(name, currentPlayer, phase, step) VALUES (?, ?, ?, ?)";
+	private static final String SQL_INSERT_GAME =
+			"INSERT INTO Game(name, currentPlayer, phase, step, boardName, noOfPlayers) VALUES (?, ?, ?, ?, ?, ?)";
 
-	private PreparedStatement insert_game_stmt = null;
-
-	private PreparedStatement getInsertGameStatementRGK() {
-		if (insert_game_stmt == null) {
-			Connection connection = connector.getConnection();
-			try {
-				insert_game_stmt = connection.prepareStatement(
-						SQL_INSERT_GAME,
-						Statement.RETURN_GENERATED_KEYS);
-			} catch (SQLException e) {
-				// TODO error handling
-				e.printStackTrace();
-			}
-		}
-		return insert_game_stmt;
+	private PreparedStatement getInsertGameStatementRGK() throws SQLException {
+		return connector.current().prepare(SQL_INSERT_GAME, Statement.RETURN_GENERATED_KEYS);
 	}
 
 	private static final String SQL_SELECT_GAME = "SELECT * FROM Game WHERE gameID = ?";
-	private PreparedStatement select_game_stmt = null;
 	
-	private PreparedStatement getSelectGameStatementU() {
-		if (select_game_stmt == null) {
-			Connection connection = connector.getConnection();
-			try {
-				select_game_stmt = connection.prepareStatement(
-						SQL_SELECT_GAME,
-						ResultSet.TYPE_FORWARD_ONLY,
-					    ResultSet.CONCUR_UPDATABLE);
-			} catch (SQLException e) {
-				// TODO error handling
-				e.printStackTrace();
-			}
-		}
-		return select_game_stmt;
+	private PreparedStatement getSelectGameStatementU() throws SQLException {
+		return connector.current().prepare(SQL_SELECT_GAME, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_UPDATABLE);
 	}
 		
+	private static final String SQL_UPDATE_GAME =
+			"UPDATE Game SET currentPlayer = ?, phase = ?, step = ?, boardName = ? WHERE gameID = ?";
+
+	private PreparedStatement getUpdateGameStatement() throws SQLException {
+		return connector.current().prepare(SQL_UPDATE_GAME);
+	}
+
+	private static final String SQL_UPDATE_PLAYER =
+			"UPDATE Player SET positionX = ?, positionY = ?, heading = ?, checkpointTokens = ? " +
+			"WHERE gameID = ? AND playerID = ?";
+
+	private PreparedStatement getUpdatePlayerStatement() throws SQLException {
+		return connector.current().prepare(SQL_UPDATE_PLAYER);
+	}
+
+	private static final String SQL_UPDATE_CARD_FIELD =
+			"UPDATE CardField SET visible = ?, command = ? " +
+			"WHERE gameID = ? AND playerID = ? AND type = ? AND position = ?";
+
+	private PreparedStatement getUpdateCardFieldStatement() throws SQLException {
+		return connector.current().prepare(SQL_UPDATE_CARD_FIELD);
+	}
+
+	private static final String SQL_DELETE_CARDSTACK =
+			"DELETE FROM CardStack WHERE gameID = ? AND playerID = ?";
+
+	private PreparedStatement getDeleteCardStackStatement() throws SQLException {
+		return connector.current().prepare(SQL_DELETE_CARDSTACK);
+	}
+
+	private static final String SQL_INSERT_CARDSTACK =
+			"INSERT INTO CardStack(gameID, playerID, type, position, command) VALUES (?, ?, ?, ?, ?)";
+
+	private PreparedStatement getInsertCardStackStatement() throws SQLException {
+		return connector.current().prepare(SQL_INSERT_CARDSTACK);
+	}
+
 	private static final String SQL_SELECT_PLAYERS = "SELECT * FROM Player WHERE gameID = ?";
-	private PreparedStatement select_players_stmt = null;
 
-	private PreparedStatement getSelectPlayersStatementU() {
-		if (select_players_stmt == null) {
-			Connection connection = connector.getConnection();
-			try {
-				select_players_stmt = connection.prepareStatement(
-						SQL_SELECT_PLAYERS,
-						ResultSet.TYPE_FORWARD_ONLY,
-						ResultSet.CONCUR_UPDATABLE);
-			} catch (SQLException e) {
-				// TODO error handling
-				e.printStackTrace();
-			}
-		}
-		return select_players_stmt;
+	private PreparedStatement getSelectPlayersStatementU() throws SQLException {
+		return connector.current().prepare(SQL_SELECT_PLAYERS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_UPDATABLE);
 	}
 
-	private static final String SQL_SELECT_PLAYERS_ASC =
-			"SELECT * FROM Player WHERE gameID = ? ORDER BY playerID ASC";
-	
-	private PreparedStatement select_players_asc_stmt = null;
-	
-	private PreparedStatement getSelectPlayersASCStatement() {
-		if (select_players_asc_stmt == null) {
-			Connection connection = connector.getConnection();
-			try {
-				// This statement does not need to be updatable
-				select_players_asc_stmt = connection.prepareStatement(
-						SQL_SELECT_PLAYERS_ASC);
-			} catch (SQLException e) {
-				// TODO error handling
-				e.printStackTrace();
-			}
-		}
-		return select_players_asc_stmt;
+	private static final int ROW_GAME = 0;
+
+	private static final int ROW_PLAYER = 1;
+
+	private static final int ROW_CARD_FIELD = 2;
+
+	private static final int ROW_CARD_STACK = 3;
+
+	/**
+	 * Selects all rows of a game in one go: the row of the game, followed by
+	 * the rows of its players, card fields and card stacks (in this order), each
+	 * sorted by player, type and position. The first column tells the kind of the
+	 * row; the meaning of the other columns depends on the kind:
+	 * <pre>
+	 *   kind        2         3      4         5          6          7        8     9
+	 *   game        current   phase  step      -          -          -        name  boardName
+	 *   player      playerID  -      -         positionX  positionY  heading  name  colour
+	 *   card field  playerID  type   position  visible    command    -        -     -
+	 *   card stack  playerID  type   position  -          command    -        -     -
+	 * </pre>
+	 */
+	private static final String SQL_SELECT_GAME_ROWS =
+			"SELECT " + ROW_GAME + " AS kind, currentPlayer AS p, phase AS t, step AS pos, NULL AS a, NULL AS b, NULL AS c, name AS s1, boardName AS s2 FROM Game WHERE gameID = ? " +
+			"UNION ALL SELECT " + ROW_PLAYER + ", playerID, 0, 0, positionX, positionY, heading, name, colour FROM Player WHERE gameID = ? " +
+			"UNION ALL SELECT " + ROW_CARD_FIELD + ", playerID, type, position, visible + 0, command, NULL, NULL, NULL FROM CardField WHERE gameID = ? " +
+			"UNION ALL SELECT " + ROW_CARD_STACK + ", playerID, type, position, NULL, command, NULL, NULL, NULL FROM CardStack WHERE gameID = ? " +
+			"ORDER BY kind, p, t, pos";
+
+	private PreparedStatement getSelectGameRowsStatement() throws SQLException {
+		// This statement does not need to be updatable
+		return connector.current().prepare(SQL_SELECT_GAME_ROWS);
 	}
 	
 	private static final String SQL_SELECT_GAMES =
 			"SELECT gameID, name FROM Game";
 	
-	private PreparedStatement select_games_stmt = null;
-	
-	private PreparedStatement getSelectGameIdsStatement() {
-		if (select_games_stmt == null) {
-			Connection connection = connector.getConnection();
-			try {
-				select_games_stmt = connection.prepareStatement(
-						SQL_SELECT_GAMES);
-			} catch (SQLException e) {
-				// TODO error handling
-				e.printStackTrace();
-			}
+	private PreparedStatement getSelectGameIdsStatement() throws SQLException {
+		return connector.current().prepare(SQL_SELECT_GAMES);
+	}
+
+	/**
+	 * Returns the statement selecting a page of the games matching the
+	 * given filter. The criteria of the filter which are null are left out
+	 * of the statement, so that the indexes on the Game table can be used;
+	 * there are at most 16 different statements, which are cached by the
+	 * connection like all others.
+	 */
+	private PreparedStatement getSelectGamesPageStatement(GameFilter filter) throws SQLException {
+		StringBuilder sql = new StringBuilder(
+				"SELECT gameID, name, boardName, created, noOfPlayers FROM Game WHERE gameID < ?");
+		if (filter.boardName != null) {
+			sql.append(" AND boardName = ?");
+		}
+		if (filter.createdFrom != null) {
+			sql.append(" AND created >= ?");
+		}
+		if (filter.createdTo != null) {
+			sql.append(" AND created < ?");
 		}
-		return select_games_stmt;
+		if (filter.noOfPlayers != null) {
+			sql.append(" AND noOfPlayers = ?");
+		}
+		sql.append(" ORDER BY gameID DESC LIMIT ?");
+		return connector.current().prepare(sql.toString());
 	}
 
 
 
 	public ArrayList<Integer> getGameIds() {
 		ArrayList<Integer> gameIds = new ArrayList<>();
-		Connection connection = connector.getConnection();
+		ConnectionPool.PooledConnection pooled = acquire();
 		int id = 0;
 		try {
-			connection.setAutoCommit(false);
 			PreparedStatement ps = getSelectGameIdsStatement();
 			ResultSet rs = ps.executeQuery();
 			while (rs.next()) {
@@ -597,53 +671,62 @@ class Repository implements IRepository {
 			rs.close();
 		} catch (SQLException e) {
 			e.printStackTrace();
+		} finally {
+			pooled.close();
 		}
 		return gameIds;
 	}
 
 	/**
-	 *  Update the card stack
+	 * Update the card stack: the decks and discard piles of the players which
+	 * changed since the game was saved the last time are deleted and inserted
+	 * again.
 	 * @param game Board
+	 * @throws SQLException
 	 */
-	private void updateCardStacksInDB(Board game) {
-		//System.out.println("  updateCardStacksInDB start. ");
-		Connection connection = connector.getConnection();
-		try {
-			connection.setAutoCommit(false);
-			PreparedStatement ps = getSelectCardStackStatement();
-			ps.setInt(1, game.getGameId());
-			ResultSet rs = ps.executeQuery();
-			while (rs.next()) {
-				rs.deleteRow();
+	private void updateCardStacksInDB(Board game) throws SQLException {
+		PreparedStatement delete = getDeleteCardStackStatement();
+		PreparedStatement insert = getInsertCardStackStatement();
+		boolean changed = false;
+		for (int i = 0; i < game.getPlayersNumber(); i++) {
+			Player player = game.getPlayer(i);
+			if (player.isDeckDirty()) {
+				delete.setInt(1, game.getGameId());
+				delete.setInt(2, i);
+				delete.addBatch();
+				addCardStack(insert, game, i, CARDSTACK_TYPE_DECK, player.getCardDeck());
+				addCardStack(insert, game, i, CARDSTACK_TYPE_DISCARD, player.getDiscardPile());
+				changed = true;
 			}
-			rs.close();
-			createCardStackInDB(game);
-		} catch (SQLException e) {
-			e.printStackTrace();
 		}
-		//System.out.println("  updateCardStacksInDB end. ");
+		if (changed) {
+			delete.executeBatch();
+			insert.executeBatch();
+		}
+	}
+
+	private void addCardStack(PreparedStatement insert, Board game, int playerId, int type, CardPile pile)
+			throws SQLException {
+		for (int position = 0; position < pile.size(); position++) {
+			insert.setInt(1, game.getGameId());
+			insert.setInt(2, playerId);
+			insert.setInt(3, type);
+			insert.setInt(4, position);
+			insert.setInt(5, pile.get(position).getCommand().ordinal());
+			insert.addBatch();
+		}
 	}
 
 	/**
 	 * get selected card stack statement
 	 * @return PreparedStatement
 	 */
-	private PreparedStatement getSelectCardStackStatement() {
-		if (select_cardstack_stmt == null) {
-			Connection connection = connector.getConnection();
-			try {
-				select_cardstack_stmt = connection.prepareStatement(
-						SQL_SELECT_CARDSTACK, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_UPDATABLE);
-			} catch (SQLException throwables) {
-				throwables.printStackTrace();
-			}
-		}
-		return select_cardstack_stmt;
+	private PreparedStatement getSelectCardStackStatement() throws SQLException {
+		return connector.current().prepare(SQL_SELECT_CARDSTACK, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_UPDATABLE);
 	}
 
 	// variable used by getSelectCardStackStatement
 	private static final String SQL_SELECT_CARDSTACK = "SELECT * FROM CardStack WHERE gameID = ?";
-	private PreparedStatement select_cardstack_stmt = null;
 
 	/**
 	 * create card stack in database
@@ -651,165 +734,165 @@ class Repository implements IRepository {
 	 * @throws SQLException
 	 */
 	private void createCardStackInDB(Board game) throws SQLException {
-		Player player;
-		Stack<CommandCard> stack;
-		int deckPosition;
 		PreparedStatement ps = getSelectCardStackStatement();
 		ps.setInt(1, game.getGameId());
 		ResultSet rs = ps.executeQuery();
 		for (int i = 0; i < game.getPlayersNumber(); i++) {
-			player = game.getPlayer(i);
-			stack = player.getCardDeck();
-			deckPosition = 0;
-			for (CommandCard command : stack) {
-				rs.moveToInsertRow();
-				rs.updateInt(PLAYER_GAMEID, game.getGameId());
-				rs.updateInt(CARDSTACK_PLAYERID, player.getPlayerId());
-				rs.updateInt(CARDSTACK_TYPE, CARDSTACK_TYPE_DECK);
-				rs.updateInt(CARDSTACK_POS, deckPosition);
-				rs.updateObject(CARDSTACK_COMMAND, command.getCommand().ordinal());
-				rs.insertRow();
-				deckPosition++;
-			}
+			Player player = game.getPlayer(i);
+			insertCardStack(rs, game, player, CARDSTACK_TYPE_DECK, player.getCardDeck());
+			insertCardStack(rs, game, player, CARDSTACK_TYPE_DISCARD, player.getDiscardPile());
 		}
 		rs.close();
 	}
 
+	private void insertCardStack(ResultSet rs, Board game, Player player, int type, CardPile pile)
+			throws SQLException {
+		for (int position = 0; position < pile.size(); position++) {
+			rs.moveToInsertRow();
+			rs.updateInt(PLAYER_GAMEID, game.getGameId());
+			rs.updateInt(CARDSTACK_PLAYERID, player.getPlayerId());
+			rs.updateInt(CARDSTACK_TYPE, type);
+			rs.updateInt(CARDSTACK_POS, position);
+			rs.updateObject(CARDSTACK_COMMAND, pile.get(position).getCommand().ordinal());
+			rs.insertRow();
+		}
+	}
+
 	/**
-	 * update card field in database
+	 * update the card fields in database, which changed since the game was
+	 * saved the last time
 	 * @param game Board
+	 * @throws SQLException
 	 */
-	private void updateCardFieldsInDB(Board game) {
-		int playerId;
-		Player player;
-		int pos;
-		int type;
-		boolean visible;
-		Connection connection = connector.getConnection();
-		try {
-			connection.setAutoCommit(false);
-			PreparedStatement ps = getSelectCardFieldStatement();
-			ps.setInt(1, game.getGameId());
-			ResultSet rs = ps.executeQuery();
-			while (rs.next()) {
-				playerId = rs.getInt(FIELD_PLAYERID);
-				player = game.getPlayer(playerId);
-				pos = rs.getInt(FIELD_POS);
-				type = rs.getInt(FIELD_TYPE);
-				visible = false;
-				if (type == FIELD_TYPE_REGISTER) {
-					visible = player.getProgram()[pos].isVisible();
-					rs.updateBoolean(FIELD_VISIBLE, visible);
-					if (player.getProgram()[pos].getCard() != null)
-						rs.updateObject(FIELD_COMMAND, player.getProgram()[pos].getCard().getCommand().ordinal());
-					else
-						rs.updateObject(FIELD_COMMAND, null);
-				} else if (type == FIELD_TYPE_HAND) {
-					visible = player.getCards()[pos].isVisible();
-					rs.updateBoolean(FIELD_VISIBLE, visible);
-					if (player.getCards()[pos].getCard() != null)
-						rs.updateObject(FIELD_COMMAND, player.getCards()[pos].getCard().getCommand().ordinal());
-					else
-						rs.updateObject(FIELD_COMMAND, null);
-				}
-				rs.updateRow();
+	private void updateCardFieldsInDB(Board game) throws SQLException {
+		PreparedStatement ps = getUpdateCardFieldStatement();
+		boolean changed = false;
+		for (int i = 0; i < game.getPlayersNumber(); i++) {
+			Player player = game.getPlayer(i);
+			CommandCardField[] program = player.getProgram();
+			for (int pos = 0; pos < program.length; pos++) {
+				changed |= addCardFieldUpdate(ps, game, i, FIELD_TYPE_REGISTER, pos, program[pos]);
 			}
-			rs.close();
-		} catch (SQLException e) {
-			e.printStackTrace();
+			CommandCardField[] cards = player.getCards();
+			for (int pos = 0; pos < cards.length; pos++) {
+				changed |= addCardFieldUpdate(ps, game, i, FIELD_TYPE_HAND, pos, cards[pos]);
+			}
+		}
+		if (changed) {
+			ps.executeBatch();
+		}
+	}
+
+	private boolean addCardFieldUpdate(PreparedStatement ps, Board game, int playerId, int type, int pos,
+									   CommandCardField field) throws SQLException {
+		if (!field.isDirty()) {
+			return false;
 		}
+		ps.setBoolean(1, field.isVisible());
+		if (field.getCard() != null) {
+			ps.setInt(2, field.getCard().getCommand().ordinal());
+		} else {
+			ps.setNull(2, Types.TINYINT);
+		}
+		ps.setInt(3, game.getGameId());
+		ps.setInt(4, playerId);
+		ps.setInt(5, type);
+		ps.setInt(6, pos);
+		ps.addBatch();
+		return true;
 	}
 
 	/**
 	 * Get select card field statement
 	 * @return PreparedStatement
 	 */
-	private PreparedStatement getSelectCardFieldStatement() {
-		if (select_card_field_stmt == null) {
-			Connection connection = connector.getConnection();
-			try {
-				select_card_field_stmt = connection.prepareStatement(
-						SQL_SELECT_CARD_FIELDS, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_UPDATABLE);
-			} catch (SQLException throwables) {
-				throwables.printStackTrace();
-			}
-		}
-		return select_card_field_stmt;
+	private PreparedStatement getSelectCardFieldStatement() throws SQLException {
+		return connector.current().prepare(SQL_SELECT_CARD_FIELDS, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_UPDATABLE);
 	}
 
 	// The variables used by getSelectCardFieldStatement()
 	private static final String SQL_SELECT_CARD_FIELDS = "SELECT * FROM CardField WHERE gameID = ?";
-	private PreparedStatement select_card_field_stmt = null;
+
+
 
 	/**
-	 * load card stack from database
-	 * @param game Board
-	 * @throws SQLException
+	 * Creates a player from a player row of {@link #SQL_SELECT_GAME_ROWS} and
+	 * adds it to the game. The players must be read in the order of their ids.
+	 * @param game the game
+	 * @param rs the result set positioned at the player row
+	 * @throws SQLException if the row could not be read
 	 */
-	private void loadCardStackFromDB(Board game) throws SQLException {
-		int playerId;
-		Player pPlayer;
-		int type;
-		Object cardStackCommand;
-		// clear card deck
-		for (Player player : game.getPlayers()) {
-			player.getCardDeck().clear();
-		}
-		PreparedStatement ps = getSelectCardStackStatement();
-		ps.setInt(1, game.getGameId());
-		ResultSet rs = ps.executeQuery();
-		while (rs.next()) {
-			playerId = rs.getInt(CARDSTACK_PLAYERID);
-			pPlayer = game.getPlayer(playerId);
-			type = rs.getInt(CARDSTACK_TYPE);
-			cardStackCommand = rs.getObject(CARDSTACK_COMMAND);
-			if (cardStackCommand != null) {
-				Command command = Command.getCommand(rs.getInt(CARDSTACK_COMMAND));
-				if (type == CARDSTACK_TYPE_DECK) {
-					pPlayer.getCardDeck().push(new CommandCard(command));
-				}
-			}
+	private void loadPlayer(Board game, ResultSet rs) throws SQLException {
+		int playerId = rs.getInt(2);
+		if (playerId != game.getPlayersNumber()) {
+			// TODO error handling
+			System.err.println("Game in DB does not have a player with id " + game.getPlayersNumber() + "!");
+			return;
 		}
-		rs.close();
+		Player player = new Player(game, rs.getString(9), rs.getString(8));
+		player.setPlayerId(playerId);
+		game.addPlayer(player);
+		player.setSpace(game.getSpace(rs.getInt(5), rs.getInt(6)));
+		player.setHeading(Heading.values()[rs.getInt(7)]);
 	}
 
 	/**
-	 * load card fields from database
-	 * @param game Board
-	 * @throws SQLException
+	 * Loads a card field row of {@link #SQL_SELECT_GAME_ROWS} into the respective
+	 * field of its player.
+	 * @param game the game
+	 * @param rs the result set positioned at the card field row
+	 * @throws SQLException if the row could not be read
 	 */
-	private void loadCardFieldsFromDB(Board game) throws SQLException {
-		int playerId;
-		Player player;
-		int type;
-		int pos;
+	private void loadCardField(Board game, ResultSet rs) throws SQLException {
+		Player player = game.getPlayer(rs.getInt(2));
+		if (player == null) {
+			return;
+		}
+		int type = rs.getInt(3);
+		int pos = rs.getInt(4);
 		CommandCardField field;
-		PreparedStatement ps = getSelectCardFieldStatement();
-		ps.setInt(1, game.getGameId());
-		ResultSet rs = ps.executeQuery();
-		while (rs.next()) {
-			playerId = rs.getInt(FIELD_PLAYERID);
-			player = game.getPlayer(playerId);
-			type = rs.getInt(FIELD_TYPE);
-			pos = rs.getInt(FIELD_POS);
-			if (type == FIELD_TYPE_REGISTER) {
-				field = player.getProgramField(pos);
-			} else if (type == FIELD_TYPE_HAND) {
-				field = player.getCardField(pos);
-			} else {
-				field = null;
-			}
-			if (field != null) {
-				field.setVisible(rs.getBoolean(FIELD_VISIBLE));
-				Object fieldCommand = rs.getObject(FIELD_COMMAND);
-				if (fieldCommand != null) {
-					Command card = Command.values()[rs.getInt(FIELD_COMMAND)];
-					field.setCard(new CommandCard(card));
-				}
+		if (type == FIELD_TYPE_REGISTER) {
+			field = player.getProgramField(pos);
+		} else if (type == FIELD_TYPE_HAND) {
+			field = player.getCardField(pos);
+		} else {
+			field = null;
+		}
+		if (field != null) {
+			field.setVisible(rs.getInt(5) != 0);
+			int command = rs.getInt(6);
+			if (!rs.wasNull()) {
+				field.setCard(CommandCard.of(Command.values()[command]));
 			}
 		}
-		rs.close();
 	}
-}
 
+	/**
+	 * Pushes the card of a card stack row of {@link #SQL_SELECT_GAME_ROWS} onto the
+	 * deck or discard pile of its player; the rows come in the order of their
+	 * positions.
+	 * @param game the game
+	 * @param rs the result set positioned at the card stack row
+	 * @throws SQLException if the row could not be read
+	 */
+	private void loadCardStack(Board game, ResultSet rs) throws SQLException {
+		Player player = game.getPlayer(rs.getInt(2));
+		if (player == null) {
+			return;
+		}
+		int type = rs.getInt(3);
+		CardPile pile;
+		if (type == CARDSTACK_TYPE_DECK) {
+			pile = player.getCardDeck();
+		} else if (type == CARDSTACK_TYPE_DISCARD) {
+			pile = player.getDiscardPile();
+		} else {
+			return;
+		}
+		int command = rs.getInt(6);
+		if (!rs.wasNull()) {
+			pile.push(CommandCard.of(Command.getCommand(command)));
+		}
+	}
 
+}
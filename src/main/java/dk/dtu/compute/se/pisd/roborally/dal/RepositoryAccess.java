@@ -21,21 +21,72 @@
  */
 package dk.dtu.compute.se.pisd.roborally.dal;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 /**
- * ...
+ * Provides the repository of the application. Which repository is used,
+ * is selected by the system property {@value #REPOSITORY_PROPERTY} when the
+ * repository is used for the first time:
+ * <ul>
+ *     <li>{@value #MYSQL} (the default): the MySQL database (see {@link Connector}),</li>
+ *     <li>{@value #LOG}: an append-only log file (see {@link LogRepository}),</li>
+ *     <li>{@value #SNAPSHOT}: a snapshot file per game (see {@link SnapshotRepository}).</li>
+ * </ul>
+ * The files are stored in the directory given by the system property
+ * {@value #DIRECTORY_PROPERTY} (by default ".roborally" in the user's home).
  *
  * @author Ekkart Kindler, ekki@dtu.dk
  *
  */
 public class RepositoryAccess {
     
-	private static Repository repository;
+	public static final String REPOSITORY_PROPERTY = "roborally.repository";
+	public static final String DIRECTORY_PROPERTY = "roborally.repository.dir";
+
+	public static final String MYSQL = "mysql";
+	public static final String LOG = "log";
+	public static final String SNAPSHOT = "snapshot";
+
+	private static IRepository repository;
 	
-	public static IRepository getRepository() {
+	public static synchronized IRepository getRepository() {
 		if(repository == null) {
-			repository = new Repository(new Connector());
+			repository = createRepository(System.getProperty(REPOSITORY_PROPERTY, MYSQL));
 		}
 		return repository;
 	}
+
+	private static IRepository createRepository(String type) {
+		Path directory = Paths.get(System.getProperty(DIRECTORY_PROPERTY,
+				Paths.get(System.getProperty("user.home"), ".roborally").toString()));
+		try {
+			switch (type) {
+				case LOG:
+					return new LogRepository(directory.resolve("games.log"));
+				case SNAPSHOT:
+					return new SnapshotRepository(directory.resolve("games"));
+				case MYSQL:
+					return new Repository(new Connector());
+				default:
+					throw new IllegalArgumentException("Unknown repository " + type + " in " + REPOSITORY_PROPERTY);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Repository in " + directory + " could not be opened", e);
+		}
+	}
+
+	/**
+	 * Replaces the repository used by the application, for example by a
+	 * {@link SnapshotRepository}, when no database is available. This
+	 * should be done before the repository is used for the first time.
+	 *
+	 * @param repository the repository
+	 */
+	public static synchronized void setRepository(IRepository repository) {
+		RepositoryAccess.repository = repository;
+	}
 	
 }
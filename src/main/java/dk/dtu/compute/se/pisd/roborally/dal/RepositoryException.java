@@ -0,0 +1,15 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+/**
+ * Thrown by a repository, when it cannot access the storage of the games
+ * at all (for example, when there is no connection to the database). The
+ * cause is the exception reported by the storage.
+ *
+ */
+public class RepositoryException extends RuntimeException {
+
+    public RepositoryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,282 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Saves games in the background (write behind). When a game is saved, an
+ * immutable snapshot of its current state is taken (see
+ * {@link GameSnapshotCodec}) and queued; the thread saving the game does not
+ * wait for the repository. A background worker writes the queued snapshots
+ * to the repository at most {@code delay} milliseconds after they were
+ * queued. If a game is saved again before its last snapshot was written,
+ * only the latest snapshot is written.<p></p>
+ *
+ * The worker restores the snapshots onto a copy of the game, which it keeps
+ * for every game; so the players, card fields and decks which did not change
+ * since the last save are not written again. A game without an id is
+ * created in the repository, and the id is then set on the game by the
+ * callback executor of the queue (so that the id can be handed back to the
+ * thread which owns the game).<p></p>
+ *
+ * If a snapshot cannot be written, it stays in the queue and is written
+ * again later (unless a newer snapshot of the game was queued meanwhile);
+ * the failure is reported to the {@link FailureListener} of the queue.
+ *
+ */
+public class SaveQueue implements AutoCloseable {
+
+    /**
+     * A listener, which is informed when a game could not be saved.
+     */
+    public interface FailureListener {
+
+        /**
+         * Called (by the callback executor of the queue) when saving the
+         * given game failed. As long as the game cannot be saved, this is
+         * called only once.
+         *
+         * @param game the game
+         * @param failure the reason of the failure
+         */
+        void saveFailed(@NotNull Board game, @NotNull RuntimeException failure);
+
+    }
+
+    private final IRepository repository;
+
+    private final long delay;
+
+    private final Executor callbacks;
+
+    /**
+     * The latest snapshots of the games which are not saved yet, in the order
+     * in which the games were saved first. Guarded by this.
+     */
+    private final Map<Board, ByteBuffer> pending = new LinkedHashMap<>();
+
+    /**
+     * The copies of the games, which are written to the repository (only
+     * accessed by the worker).
+     */
+    private final Map<Board, Board> copies = new WeakHashMap<>();
+
+    /**
+     * The games, whose last snapshot could not be written (only accessed by
+     * the worker).
+     */
+    private final Set<Board> failing = Collections.newSetFromMap(new WeakHashMap<>());
+
+    private final Thread worker;
+
+    private volatile FailureListener failureListener;
+
+    private int writing;
+
+    /**
+     * The number of times, the worker has written the pending snapshots.
+     */
+    private long rounds;
+
+    private boolean flushing;
+
+    private boolean closed;
+
+    /**
+     * Creates a save queue writing to the given repository. The ids of
+     * created games are set on the games by the worker; they are visible to
+     * a thread after {@link #flush()} returned.
+     *
+     * @param repository the repository
+     * @param delay the maximum time in milliseconds, for which snapshots are
+     *              collected before they are written
+     */
+    public SaveQueue(@NotNull IRepository repository, long delay) {
+        this(repository, delay, Runnable::run);
+    }
+
+    /**
+     * Creates a save queue writing to the given repository, which sets the
+     * ids of created games on the games with the given executor (for
+     * example {@code Platform::runLater}, so that the ids are set in the
+     * JavaFX application thread).
+     *
+     * @param repository the repository
+     * @param delay the maximum time in milliseconds, for which snapshots are
+     *              collected before they are written
+     * @param callbacks the executor setting the ids of created games
+     */
+    public SaveQueue(@NotNull IRepository repository, long delay, @NotNull Executor callbacks) {
+        this.repository = repository;
+        this.delay = delay;
+        this.callbacks = callbacks;
+        this.worker = new Thread(this::run, "save-queue");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Sets the listener, which is informed when a game could not be saved.
+     *
+     * @param failureListener the listener (or null)
+     */
+    public void setFailureListener(FailureListener failureListener) {
+        this.failureListener = failureListener;
+    }
+
+    /**
+     * Queues a snapshot of the current state of the given game for saving.
+     * This must be called from the thread which changes the game (so
+     * that the snapshot is consistent).
+     *
+     * @param game the game
+     * @throws IllegalStateException if the queue is closed
+     */
+    public void save(@NotNull Board game) {
+        ByteBuffer snapshot = GameSnapshotCodec.encode(game, null, null);
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("The save queue is closed");
+            }
+            pending.put(game, snapshot);
+            notifyAll();
+        }
+    }
+
+    /**
+     * Waits until all snapshots queued so far were written to the repository
+     * (or failed to be written; these are not waited for again).
+     */
+    public synchronized void flush() {
+        flushing = true;
+        notifyAll();
+        // the snapshots which are written right now, and the pending ones
+        // which are written in the next round of the worker
+        long end = rounds + (writing > 0 ? 2 : 1);
+        try {
+            while ((!pending.isEmpty() || writing > 0) && rounds < end) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            flushing = false;
+        }
+    }
+
+    /**
+     * Writes all queued snapshots and stops the worker. After that, no more
+     * games can be saved with this queue.
+     */
+    @Override
+    public void close() {
+        flush();
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            List<Map.Entry<Board, ByteBuffer>> snapshots;
+            synchronized (this) {
+                try {
+                    while (pending.isEmpty() && !closed) {
+                        wait();
+                    }
+                    if (pending.isEmpty()) {
+                        return;
+                    }
+                    // give the game some time to change again, so that
+                    // several saves are written as one
+                    long end = System.currentTimeMillis() + delay;
+                    long remaining = delay;
+                    while (remaining > 0 && !flushing && !closed) {
+                        wait(remaining);
+                        remaining = end - System.currentTimeMillis();
+                    }
+                } catch (InterruptedException e) {
+                    // write the pending snapshots anyway
+                }
+                snapshots = new ArrayList<>(pending.entrySet());
+                pending.clear();
+                writing = snapshots.size();
+            }
+            List<Map.Entry<Board, ByteBuffer>> failed = new ArrayList<>();
+            for (Map.Entry<Board, ByteBuffer> snapshot : snapshots) {
+                Board game = snapshot.getKey();
+                RuntimeException failure;
+                try {
+                    failure = write(game, snapshot.getValue().duplicate());
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+                if (failure == null) {
+                    failing.remove(game);
+                } else {
+                    // the copy might be half written; it is decoded from
+                    // the snapshot again, when the game is written again
+                    copies.remove(game);
+                    failed.add(snapshot);
+                    FailureListener listener = failureListener;
+                    if (failing.add(game) && listener != null) {
+                        RuntimeException reported = failure;
+                        callbacks.execute(() -> listener.saveFailed(game, reported));
+                    }
+                }
+            }
+            synchronized (this) {
+                if (!closed) {
+                    for (Map.Entry<Board, ByteBuffer> snapshot : failed) {
+                        pending.putIfAbsent(snapshot.getKey(), snapshot.getValue());
+                    }
+                }
+                writing = 0;
+                rounds++;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Writes the given snapshot of the given game to the repository.
+     *
+     * @return null if the snapshot was written; the failure otherwise
+     */
+    private RuntimeException write(Board game, ByteBuffer snapshot) {
+        Board copy = copies.get(game);
+        if (copy == null) {
+            copy = GameSnapshotCodec.decode(snapshot);
+            copies.put(game, copy);
+        } else {
+            GameSnapshotCodec.restore(snapshot, copy);
+        }
+        if (copy.getGameId() == null) {
+            if (!repository.createGameInDB(copy)) {
+                return new RepositoryException("The game could not be created in the repository", null);
+            }
+            int gameId = copy.getGameId();
+            callbacks.execute(() -> game.setGameId(gameId));
+        } else if (!repository.updateGameInDB(copy)) {
+            return new RepositoryException("The game could not be updated in the repository", null);
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,130 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A repository, which stores every game as a binary snapshot (see
+ * {@link GameSnapshotCodec}) in a file of its own in a directory. It can be
+ * used instead of the database backed repository, when no database server
+ * is available.
+ *
+ */
+public class SnapshotRepository implements IRepository {
+
+    private static final String PREFIX = "game-";
+
+    private static final String SUFFIX = ".rrs";
+
+    private final Path directory;
+
+    private final AtomicInteger lastGameId = new AtomicInteger();
+
+    /**
+     * The games in the directory by their ids.
+     */
+    private final NavigableMap<Integer, GameInDB> games = new ConcurrentSkipListMap<>();
+
+    /**
+     * Creates a repository storing the games in the given directory, which
+     * is created if it does not exist yet.
+     *
+     * @param directory the directory of the games
+     * @throws IOException if the directory could not be created or read
+     */
+    public SnapshotRepository(@NotNull Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    GameInDB game = GameSnapshotCodec.readHeader(GameSnapshotCodec.read(file));
+                    games.put(game.id, game);
+                    lastGameId.accumulateAndGet(game.id, Math::max);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Ignoring " + file + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean createGameInDB(Board game) {
+        if (game.getGameId() != null) {
+            System.err.println("Game cannot be created in DB, since it has a game id already!");
+            return false;
+        }
+        int id = lastGameId.incrementAndGet();
+        game.setGameId(id);
+        games.put(id, new GameInDB(id, "Date: " + new Date(), game.boardName, Instant.now(), game.getPlayersNumber()));
+        return updateGameInDB(game);
+    }
+
+    @Override
+    public boolean updateGameInDB(Board game) {
+        assert game.getGameId() != null;
+
+        int id = game.getGameId();
+        GameInDB info = games.get(id);
+        if (info == null) {
+            info = new GameInDB(id, "", game.boardName, null, game.getPlayersNumber());
+        }
+        Path file = file(id);
+        Path temporary = directory.resolve(file.getFileName() + ".tmp");
+        try {
+            // the snapshot is written to a temporary file first, so that a
+            // crash while writing does not destroy the last saved state
+            GameSnapshotCodec.write(game, info.name, info.created, temporary);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            games.putIfAbsent(id, info);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public Board loadGameFromDB(int id) {
+        try {
+            ByteBuffer snapshot = GameSnapshotCodec.read(file(id));
+            return GameSnapshotCodec.decode(snapshot);
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public List<GameInDB> getGames() {
+        return new ArrayList<>(games.values());
+    }
+
+    @Override
+    public List<GameInDB> getGames(@NotNull GameFilter filter, Integer afterId, int limit) {
+        return GameFilter.page(afterId == null ? games : games.headMap(afterId, false), filter, limit);
+    }
+
+    @Override
+    public ArrayList<Integer> getGameIds() {
+        return new ArrayList<>(games.keySet());
+    }
+
+    private Path file(int id) {
+        return directory.resolve(PREFIX + id + SUFFIX);
+    }
+
+}
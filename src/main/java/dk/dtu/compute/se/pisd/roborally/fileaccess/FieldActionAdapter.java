@@ -0,0 +1,331 @@
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import dk.dtu.compute.se.pisd.roborally.controller.CheckPointFieldAction;
+import dk.dtu.compute.se.pisd.roborally.controller.ConveyorBelt;
+import dk.dtu.compute.se.pisd.roborally.controller.FieldAction;
+import dk.dtu.compute.se.pisd.roborally.controller.GearsFieldAction;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Reads and writes field actions in JSON without reflection. Every kind of
+ * field action is registered with a short type id and a {@link Codec}, which
+ * reads and writes its properties; an action is written as a single object
+ * with its type id first, for example
+ * <pre>
+ *   { "type": "gears", "heading": "NORTH" }
+ * </pre>
+ * Actions in the legacy layout, which wraps the properties in an
+ * <code>INSTANCE</code> object next to the full <code>CLASSNAME</code> of the
+ * action, can still be read, as long as the class is registered. Besides,
+ * every kind of action is registered with a function copying an action,
+ * so that boards can be created from a template without any JSON (see
+ * {@link #copy(FieldAction)}).
+ *
+ */
+public class FieldActionAdapter extends TypeAdapter<FieldAction> {
+
+    private static final String TYPE = "type";
+
+    private static final String CLASSNAME = "CLASSNAME";
+    private static final String INSTANCE = "INSTANCE";
+
+    /**
+     * Reads and writes the properties of one kind of field action.
+     *
+     * @param <T> the kind of field action
+     */
+    public interface Codec<T extends FieldAction> {
+
+        /**
+         * Reads the value of the property with the given name into the given
+         * action. Unknown properties must be skipped.
+         *
+         * @param action the action
+         * @param name the name of the property
+         * @param in the reader positioned at the value of the property
+         * @throws IOException if the value could not be read
+         */
+        void readProperty(T action, String name, JsonReader in) throws IOException;
+
+        /**
+         * Writes the properties of the given action (without the type id).
+         *
+         * @param action the action
+         * @param out the writer
+         * @throws IOException if the properties could not be written
+         */
+        void writeProperties(T action, JsonWriter out) throws IOException;
+
+    }
+
+    private static final class Registration<T extends FieldAction> {
+
+        private final String typeId;
+        private final Supplier<T> factory;
+        private final UnaryOperator<T> copier;
+        private final Codec<T> codec;
+
+        private Registration(String typeId, Supplier<T> factory, UnaryOperator<T> copier, Codec<T> codec) {
+            this.typeId = typeId;
+            this.factory = factory;
+            this.copier = copier;
+            this.codec = codec;
+        }
+
+    }
+
+    private static final Map<String, Registration<?>> byTypeId = new ConcurrentHashMap<>();
+
+    private static final Map<Class<?>, Registration<?>> byClass = new ConcurrentHashMap<>();
+
+    /**
+     * The registrations by the full names of the classes, for reading the
+     * legacy layout.
+     */
+    private static final Map<String, Registration<?>> byClassName = new ConcurrentHashMap<>();
+
+    static {
+        register("conveyorBelt", ConveyorBelt.class, ConveyorBelt::new, belt -> {
+            ConveyorBelt copy = new ConveyorBelt();
+            copy.setHeading(belt.getHeading());
+            return copy;
+        }, new Codec<>() {
+            @Override
+            public void readProperty(ConveyorBelt action, String name, JsonReader in) throws IOException {
+                if (name.equals("heading")) {
+                    action.setHeading(readHeading(in));
+                } else {
+                    in.skipValue();
+                }
+            }
+
+            @Override
+            public void writeProperties(ConveyorBelt action, JsonWriter out) throws IOException {
+                writeHeading(out, action.getHeading());
+            }
+        });
+        register("gears", GearsFieldAction.class, GearsFieldAction::new, gears -> {
+            GearsFieldAction copy = new GearsFieldAction();
+            copy.setHeading(gears.getHeading());
+            return copy;
+        }, new Codec<>() {
+            @Override
+            public void readProperty(GearsFieldAction action, String name, JsonReader in) throws IOException {
+                if (name.equals("heading")) {
+                    action.setHeading(readHeading(in));
+                } else {
+                    in.skipValue();
+                }
+            }
+
+            @Override
+            public void writeProperties(GearsFieldAction action, JsonWriter out) throws IOException {
+                writeHeading(out, action.getHeading());
+            }
+        });
+        register("checkpoint", CheckPointFieldAction.class, CheckPointFieldAction::new, checkpoint -> {
+            CheckPointFieldAction copy = new CheckPointFieldAction();
+            copy.setCheckPointId(checkpoint.getCheckPointFieldId());
+            return copy;
+        }, new Codec<>() {
+            @Override
+            public void readProperty(CheckPointFieldAction action, String name, JsonReader in) throws IOException {
+                if (name.equals("checkPointFieldId")) {
+                    action.setCheckPointId(in.nextInt());
+                } else {
+                    in.skipValue();
+                }
+            }
+
+            @Override
+            public void writeProperties(CheckPointFieldAction action, JsonWriter out) throws IOException {
+                out.name("checkPointFieldId").value(action.getCheckPointFieldId());
+            }
+        });
+    }
+
+    /**
+     * Registers a kind of field action, so that it can be read and written.
+     *
+     * @param typeId the type id of the action in JSON
+     * @param type the class of the action
+     * @param factory creates a new action with default properties
+     * @param copier creates a new action with the properties of the given one
+     * @param codec reads and writes the properties of the action
+     * @param <T> the kind of field action
+     * @throws IllegalArgumentException if the type id or class is registered already
+     */
+    public static <T extends FieldAction> void register(@NotNull String typeId, @NotNull Class<T> type,
+                                                        @NotNull Supplier<T> factory, @NotNull UnaryOperator<T> copier,
+                                                        @NotNull Codec<T> codec) {
+        Registration<T> registration = new Registration<>(typeId, factory, copier, codec);
+        if (byTypeId.putIfAbsent(typeId, registration) != null) {
+            throw new IllegalArgumentException("Type id " + typeId + " is registered already");
+        }
+        if (byClass.putIfAbsent(type, registration) != null) {
+            byTypeId.remove(typeId);
+            throw new IllegalArgumentException(type.getName() + " is registered already");
+        }
+        byClassName.put(type.getName(), registration);
+    }
+
+    /**
+     * Returns a new action with the same properties as the given one.
+     *
+     * @param action the action
+     * @return the copy of the action
+     * @throws IllegalArgumentException if the kind of the action is not registered
+     */
+    public static FieldAction copy(@NotNull FieldAction action) {
+        Registration<?> registration = byClass.get(action.getClass());
+        if (registration == null) {
+            throw new IllegalArgumentException("Field action " + action.getClass().getName() + " is not registered");
+        }
+        return copy(registration, action);
+    }
+
+    @Override
+    public void write(JsonWriter out, FieldAction action) throws IOException {
+        if (action == null) {
+            out.nullValue();
+            return;
+        }
+        Registration<?> registration = byClass.get(action.getClass());
+        if (registration == null) {
+            throw new JsonParseException("Field action " + action.getClass().getName() + " is not registered");
+        }
+        out.beginObject();
+        out.name(TYPE).value(registration.typeId);
+        writeProperties(registration, action, out);
+        out.endObject();
+    }
+
+    @Override
+    public FieldAction read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        in.beginObject();
+        if (!in.hasNext()) {
+            throw new JsonParseException("Field action without type");
+        }
+        String name = in.nextName();
+        FieldAction action;
+        if (name.equals(TYPE)) {
+            String typeId = in.nextString();
+            Registration<?> registration = byTypeId.get(typeId);
+            if (registration == null) {
+                throw new JsonParseException("Unknown field action type " + typeId);
+            }
+            action = readProperties(registration, in);
+        } else if (name.equals(CLASSNAME)) {
+            action = readLegacy(in.nextString(), in);
+        } else {
+            // the type is not the first property; this cannot be read as a
+            // stream, so the object is read as a whole with the type first
+            JsonObject object = new JsonObject();
+            object.add(name, JsonParser.parseReader(in));
+            while (in.hasNext()) {
+                String other = in.nextName();
+                object.add(other, JsonParser.parseReader(in));
+            }
+            in.endObject();
+            return fromJsonTree(reorder(object));
+        }
+        in.endObject();
+        return action;
+    }
+
+    private FieldAction readLegacy(String className, JsonReader in) throws IOException {
+        Registration<?> registration = byClassName.get(className);
+        if (registration == null) {
+            throw new JsonParseException("Unknown field action class " + className);
+        }
+        FieldAction action = null;
+        while (in.hasNext()) {
+            if (in.nextName().equals(INSTANCE)) {
+                in.beginObject();
+                action = readProperties(registration, in);
+                in.endObject();
+            } else {
+                in.skipValue();
+            }
+        }
+        return action != null ? action : registration.factory.get();
+    }
+
+    private static JsonObject reorder(JsonObject object) {
+        JsonObject result = new JsonObject();
+        String first = object.has(TYPE) ? TYPE : CLASSNAME;
+        JsonElement type = object.get(first);
+        if (type == null) {
+            throw new JsonParseException("Field action without type");
+        }
+        result.add(first, type);
+        for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+            if (!entry.getKey().equals(first)) {
+                result.add(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the properties up to the end of the current object.
+     */
+    private static <T extends FieldAction> T readProperties(Registration<T> registration, JsonReader in)
+            throws IOException {
+        T action = registration.factory.get();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+            } else {
+                registration.codec.readProperty(action, name, in);
+            }
+        }
+        return action;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends FieldAction> T copy(Registration<T> registration, FieldAction action) {
+        return registration.copier.apply((T) action);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends FieldAction> void writeProperties(Registration<T> registration, FieldAction action,
+                                                                JsonWriter out) throws IOException {
+        registration.codec.writeProperties((T) action, out);
+    }
+
+    private static Heading readHeading(JsonReader in) throws IOException {
+        try {
+            return Heading.valueOf(in.nextString());
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(e.getMessage());
+        }
+    }
+
+    private static void writeHeading(JsonWriter out, Heading heading) throws IOException {
+        if (heading != null) {
+            out.name("heading").value(heading.name());
+        }
+    }
+
+}
@@ -21,17 +21,23 @@
  */
 package dk.dtu.compute.se.pisd.roborally.fileaccess;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
-import dk.dtu.compute.se.pisd.roborally.fileaccess.model.BoardTemplate;
 import dk.dtu.compute.se.pisd.roborally.fileaccess.model.SpaceTemplate;
 import dk.dtu.compute.se.pisd.roborally.controller.FieldAction;
 import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.BoardCore;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
 import dk.dtu.compute.se.pisd.roborally.model.Space;
+import dk.dtu.compute.se.pisd.roborally.model.Topology;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * ...
@@ -57,10 +63,107 @@ public class LoadBoard {
     }
 
     /**
-     * Loads a game board configuration from a specified JSON file.
+     * The names of the boards, which come with the game.
+     */
+    public static final List<String> BUNDLED_BOARDS = List.of("defaultboard", "easyboard", "hardboard");
+
+    private static final FieldActionAdapter ACTION_ADAPTER = new FieldActionAdapter();
+
+    private static final FieldAction[] NO_ACTIONS = new FieldAction[0];
+
+    /**
+     * The immutable template of a board, from which new boards are created
+     * without reading the JSON file again. Only the cells with walls or
+     * actions are kept, in arrays which are never changed after the template
+     * was created; the walls are read from the {@link BoardCore}, so that no
+     * spaces are created for cells without actions. The field actions are
+     * kept as prototypes, and every board created from the template gets its
+     * own copies of them (see {@link FieldActionAdapter#copy(FieldAction)});
+     * so boards of games running at the same time do not share any mutable
+     * state.
+     */
+    private static final class CachedBoard {
+
+        private final int width;
+        private final int height;
+        private final Topology topology;
+
+        private final int[] xs;
+        private final int[] ys;
+        private final FieldAction[][] actions;
+
+        /**
+         * The walls of the cells as bit masks (see {@link BoardCore#getWalls(int)}).
+         */
+        private final int[] walls;
+
+        private CachedBoard(Board board) {
+            width = board.width;
+            height = board.height;
+            topology = board.topology;
+            BoardCore core = board.getCore();
+            int n = 0;
+            for (int cell = 0; cell < core.size(); cell++) {
+                if (core.getWalls(cell) != 0 || core.hasFlag(cell, BoardCore.ACTIONS)) {
+                    n++;
+                }
+            }
+            xs = new int[n];
+            ys = new int[n];
+            actions = new FieldAction[n][];
+            walls = new int[n];
+            int i = 0;
+            for (int cell = 0; cell < core.size(); cell++) {
+                if (core.getWalls(cell) != 0 || core.hasFlag(cell, BoardCore.ACTIONS)) {
+                    xs[i] = core.x(cell);
+                    ys[i] = core.y(cell);
+                    walls[i] = core.getWalls(cell);
+                    actions[i] = core.hasFlag(cell, BoardCore.ACTIONS) ?
+                            board.getSpace(cell).getActions().toArray(new FieldAction[0]) : NO_ACTIONS;
+                    i++;
+                }
+            }
+        }
+
+        private Board createBoard(String boardname) {
+            Board result = new Board(width, height, boardname, topology);
+            copySpaces(result);
+            return result;
+        }
+
+        /**
+         * Adds the walls and actions of this template to the given board,
+         * which must not be smaller than this template.
+         */
+        private void copySpaces(Board board) {
+            BoardCore core = board.getCore();
+            for (int i = 0; i < xs.length; i++) {
+                int cell = core.cell(xs[i], ys[i]);
+                if (actions[i].length > 0) {
+                    Space space = board.getSpace(cell);
+                    for (FieldAction action : actions[i]) {
+                        space.addAction(FieldActionAdapter.copy(action));
+                    }
+                }
+                board.addWalls(cell, walls[i]);
+            }
+        }
+
+    }
+
+    /**
+     * The templates of the boards, which were loaded already, by their names
+     * (shared by the whole application).
+     */
+    private static final Map<String, CachedBoard> templates = new ConcurrentHashMap<>();
+
+    /**
+     * Loads a game board configuration from a specified JSON file. The file is
+     * read only the first time a board with this name is loaded; after that, the
+     * board is created from the cached template (until the template is evicted,
+     * see {@link #evictBoard(String)}).
      * @param boardname The name of the board to load. If null, the default board is loaded.
      * @return The loaded Board object, or a new 8x8 board if the file does not exist.
-     * @throws IOException if an I/O error occurs during file reading.
      * @author Anton Fu Hou Dong, s235460.
      */
     public static Board loadBoard(String boardname) {
@@ -69,74 +172,247 @@ public class LoadBoard {
         }
 
         gameBoard = boardname;
-        //System.out.println("loadBoard " + boardname);
+        return template(boardname).createBoard(boardname);
+    }
+
+    /**
+     * Loads the templates of the given boards into the cache, so that creating
+     * games with these boards later does not need to read any files. This can
+     * be called at startup (outside the JavaFX application thread).
+     * @param boardnames the names of the boards
+     */
+    public static void preloadBoards(List<String> boardnames) {
+        for (String boardname : boardnames) {
+            template(boardname);
+        }
+    }
+
+    /**
+     * Removes the template of the given board from the cache, so that it is
+     * read again the next time the board is loaded. This is necessary when the
+     * file of a board was changed, for example a board supplied by the user.
+     * @param boardname the name of the board
+     */
+    public static void evictBoard(String boardname) {
+        templates.remove(boardname);
+    }
+
+    private static CachedBoard template(String boardname) {
+        CachedBoard template = templates.get(boardname);
+        if (template == null) {
+            Board board = readResource(boardname);
+            if (board == null) {
+                // the empty board is not cached, so that the board is read
+                // again, once its file is available (or fixed)
+                // TODO these constants should be defined somewhere
+                return new CachedBoard(new Board(8, 8, boardname));
+            }
+            template = new CachedBoard(board);
+            CachedBoard other = templates.putIfAbsent(boardname, template);
+            if (other != null) {
+                template = other;
+            }
+        }
+        return template;
+    }
+
+    /**
+     * Reads the board with the given name from its JSON file in the resources.
+     * @param boardname the name of the board
+     * @return the board, or null if the file does not exist or could not be read
+     */
+    private static Board readResource(String boardname) {
         ClassLoader classLoader = LoadBoard.class.getClassLoader();
         InputStream inputStream = classLoader.getResourceAsStream(BOARDSFOLDER + "/" + boardname + "." + JSON_EXT);
-        //System.out.println("LoadBoard " + BOARDSFOLDER + "/" + boardname + "." + JSON_EXT);
         if (inputStream == null) {
-            // TODO these constants should be defined somewhere
-            return new Board(8,8);
+            return null;
+        }
+        try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+            return readBoard(reader, boardname);
+        } catch (IOException | JsonParseException | IllegalArgumentException e) {
+            // TODO error handling
+            e.printStackTrace();
+            return null;
         }
+    }
 
-		// In simple cases, we can create a Gson object with new Gson():
-        GsonBuilder simpleBuilder = new GsonBuilder().
-                registerTypeAdapter(FieldAction.class, new Adapter<FieldAction>());
-        Gson gson = simpleBuilder.create();
-
-		Board result;
-		// FileReader fileReader = null;
-        JsonReader reader = null;
-		try {
-			// fileReader = new FileReader(filename);
-			reader = gson.newJsonReader(new InputStreamReader(inputStream));
-			BoardTemplate template = gson.fromJson(reader, BoardTemplate.class);
-
-			result = new Board(template.width, template.height);
-			for (SpaceTemplate spaceTemplate: template.spaces) {
-			    Space space = result.getSpace(spaceTemplate.x, spaceTemplate.y);
-			    if (space != null) {
-                   // System.out.println("space on " + spaceTemplate.x + ", " + spaceTemplate.y + " found.");
-                    space.getActions().addAll(spaceTemplate.actions);
-                    space.getWalls().addAll(spaceTemplate.walls);
-                }
+    /**
+     * Reads a board from JSON. The board is read as a stream: the spaces are
+     * applied to the board as they are read, so that even very large boards
+     * are not held in memory twice. This works best if the width and the height
+     * of the board come before its spaces (as in the files written by
+     * {@link #writeBoard(Board, Writer)}); otherwise, the spaces are kept until
+     * the size of the board is known. The board is not cached.
+     * @param in the reader for the JSON
+     * @param boardname the name of the board
+     * @return the board
+     * @throws IOException if the JSON could not be read
+     * @throws JsonParseException if the JSON is not a valid board
+     */
+    public static Board readBoard(Reader in, String boardname) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        int width = -1;
+        int height = -1;
+        Topology topology = Topology.WRAP_AROUND;
+        Board board = null;
+        List<SpaceTemplate> pending = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case "width":
+                    width = reader.nextInt();
+                    break;
+                case "height":
+                    height = reader.nextInt();
+                    break;
+                case "topology":
+                    topology = Topology.valueOf(reader.nextString());
+                    break;
+                case "spaces":
+                    if (board == null && width > 0 && height > 0 && pending == null) {
+                        board = new Board(width, height, boardname, topology);
+                    }
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        SpaceTemplate space = readSpace(reader);
+                        if (board != null) {
+                            applySpace(board, space);
+                        } else {
+                            if (pending == null) {
+                                pending = new ArrayList<>();
+                            }
+                            pending.add(space);
+                        }
+                    }
+                    reader.endArray();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (board == null || board.topology != topology) {
+            // the size or topology of the board came after its spaces
+            if (width <= 0 || height <= 0) {
+                throw new JsonParseException("Board " + boardname + " has no valid size");
+            }
+            Board old = board;
+            board = new Board(width, height, boardname, topology);
+            if (old != null) {
+                new CachedBoard(old).copySpaces(board);
+            }
+        }
+        if (pending != null) {
+            for (SpaceTemplate space : pending) {
+                applySpace(board, space);
             }
-			reader.close();
-			return result;
-		} catch (IOException e1) {
-            if (reader != null) {
-                try {
-                    reader.close();
-                    inputStream = null;
-                } catch (IOException e2) {}
+        }
+        return board;
+    }
+
+    /**
+     * Reads a single space; the walls and actions of the space are kept until
+     * its coordinates are known, since they might come last.
+     */
+    private static SpaceTemplate readSpace(JsonReader reader) throws IOException {
+        SpaceTemplate space = new SpaceTemplate();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case "x":
+                    space.x = reader.nextInt();
+                    break;
+                case "y":
+                    space.y = reader.nextInt();
+                    break;
+                case "walls":
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        space.walls.add(Heading.valueOf(reader.nextString()));
+                    }
+                    reader.endArray();
+                    break;
+                case "actions":
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        FieldAction action = ACTION_ADAPTER.read(reader);
+                        if (action != null) {
+                            space.actions.add(action);
+                        }
+                    }
+                    reader.endArray();
+                    break;
+                default:
+                    reader.skipValue();
             }
-            if (inputStream != null) {
-				try {
-					inputStream.close();
-				} catch (IOException e2) {}
-			}
-		}
-		return null;
+        }
+        reader.endObject();
+        return space;
     }
 
-    public static void saveBoard(Board board, String name) {
-        BoardTemplate template = new BoardTemplate();
-        template.width = board.width;
-        template.height = board.height;
-
-        for (int i=0; i<board.width; i++) {
-            for (int j=0; j<board.height; j++) {
-                Space space = board.getSpace(i,j);
-                if (!space.getWalls().isEmpty() || !space.getActions().isEmpty()) {
-                    SpaceTemplate spaceTemplate = new SpaceTemplate();
-                    spaceTemplate.x = space.x;
-                    spaceTemplate.y = space.y;
-                    spaceTemplate.actions.addAll(space.getActions());
-                    spaceTemplate.walls.addAll(space.getWalls());
-                    template.spaces.add(spaceTemplate);
+    private static void applySpace(Board board, SpaceTemplate spaceTemplate) {
+        Space space = board.getSpace(spaceTemplate.x, spaceTemplate.y);
+        if (space != null) {
+            for (FieldAction action : spaceTemplate.actions) {
+                space.addAction(action);
+            }
+            for (Heading wall : spaceTemplate.walls) {
+                space.addWall(wall);
+            }
+        }
+    }
+
+    /**
+     * Writes a board as JSON. The cells with walls or actions are written while
+     * the board core is iterated, without building a template of the board
+     * first; spaces are only created for the cells with actions.
+     * @param board the board
+     * @param out the writer for the JSON
+     * @throws IOException if the JSON could not be written
+     */
+    public static void writeBoard(Board board, Writer out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.setIndent("  ");
+        writer.beginObject();
+        writer.name("width").value(board.width);
+        writer.name("height").value(board.height);
+        writer.name("topology").value(board.topology.name());
+        writer.name("spaces").beginArray();
+        BoardCore core = board.getCore();
+        for (int cell = 0; cell < core.size(); cell++) {
+            int walls = core.getWalls(cell);
+            boolean hasActions = core.hasFlag(cell, BoardCore.ACTIONS);
+            if (walls != 0 || hasActions) {
+                writer.beginObject();
+                writer.name("walls").beginArray();
+                for (Heading wall : Heading.values()) {
+                    if ((walls & wall.mask()) != 0) {
+                        writer.value(wall.name());
+                    }
+                }
+                writer.endArray();
+                writer.name("actions").beginArray();
+                if (hasActions) {
+                    for (FieldAction action : board.getSpace(cell).getActions()) {
+                        ACTION_ADAPTER.write(writer, action);
+                    }
                 }
+                writer.endArray();
+                writer.name("x").value(core.x(cell));
+                writer.name("y").value(core.y(cell));
+                writer.endObject();
             }
         }
+        writer.endArray();
+        writer.endObject();
+        writer.flush();
+    }
 
+    public static void saveBoard(Board board, String name) {
         ClassLoader classLoader = LoadBoard.class.getClassLoader();
         // TODO: this is not very defensive, and will result in a NullPointerException
         //       when the folder "resources" does not exist! But, it does not need
@@ -144,38 +420,14 @@ public class LoadBoard {
         String filename =
                 classLoader.getResource(BOARDSFOLDER).getPath() + "/" + name + "." + JSON_EXT;
 
-        // In simple cases, we can create a Gson object with new:
-        //
-        //   Gson gson = new Gson();
-        //
-        // But, if you need to configure it, it is better to create it from
-        // a builder (here, we want to configure the JSON serialisation with
-        // a pretty printer):
-        GsonBuilder simpleBuilder = new GsonBuilder().
-                registerTypeAdapter(FieldAction.class, new Adapter<FieldAction>()).
-                setPrettyPrinting();
-        Gson gson = simpleBuilder.create();
-
-        FileWriter fileWriter = null;
-        JsonWriter writer = null;
-        try {
-            fileWriter = new FileWriter(filename);
-            writer = gson.newJsonWriter(fileWriter);
-            gson.toJson(template, template.getClass(), writer);
-            writer.close();
-        } catch (IOException e1) {
-            if (writer != null) {
-                try {
-                    writer.close();
-                    fileWriter = null;
-                } catch (IOException e2) {}
-            }
-            if (fileWriter != null) {
-                try {
-                    fileWriter.close();
-                } catch (IOException e2) {}
-            }
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(filename), StandardCharsets.UTF_8))) {
+            writeBoard(board, writer);
+        } catch (IOException e) {
+            // TODO error handling
+            e.printStackTrace();
         }
+        // the board must be read again the next time it is loaded
+        evictBoard(name);
     }
 
 }
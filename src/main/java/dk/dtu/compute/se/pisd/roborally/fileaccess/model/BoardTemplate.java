@@ -21,6 +21,8 @@
  */
 package dk.dtu.compute.se.pisd.roborally.fileaccess.model;
 
+import dk.dtu.compute.se.pisd.roborally.model.Topology;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -36,6 +38,11 @@ public class BoardTemplate {
     public int width;
     public int height;
 
+    /**
+     * The topology of the board; if it is not given, the board wraps around.
+     */
+    public Topology topology;
+
     public List<SpaceTemplate> spaces = new ArrayList<>();
 
 }
@@ -24,7 +24,6 @@ package dk.dtu.compute.se.pisd.roborally.model;
 import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
 import dk.dtu.compute.se.pisd.roborally.controller.CheckPointFieldAction;
 import dk.dtu.compute.se.pisd.roborally.controller.GameController;
-import javafx.application.Application;
 import org.jetbrains.annotations.NotNull;
 import dk.dtu.compute.se.pisd.roborally.model.Space;
 
@@ -52,9 +51,24 @@ public class Board extends Subject {
 
     public final String boardName;
 
+    public final Topology topology;
+
     private Integer gameId;
 
-    private final Space[][] spaces;
+    private final BoardCore core;
+
+    /**
+     * The spaces of the board, indexed by the number of their cell in the
+     * board core. The spaces are created lazily, when they are accessed
+     * for the first time.
+     */
+    private final Space[] spaces;
+
+    /**
+     * The flow graph of the conveyor belts; it is computed when it is needed
+     * for the first time, and again after belts or walls were added.
+     */
+    private ConveyorGraph conveyorGraph;
 
     private GameController gameController;
 
@@ -68,28 +82,38 @@ public class Board extends Subject {
 
     private boolean stepMode;
 
+    private Player winner;
+
     /**
      * This is a constructor of the Board class.
      * @param width int
      * @param height int
      * @param boardName String
+     * @param topology Topology, which defines the neighbours at the edges of the board
      *
      */
-    public Board(int width, int height, @NotNull String boardName) {
+    public Board(int width, int height, @NotNull String boardName, @NotNull Topology topology) {
         this.boardName = boardName;
+        this.topology = topology;
         this.width = width;
         this.height = height;
-        spaces = new Space[width][height];
-        for (int x = 0; x < width; x++) {
-            for(int y = 0; y < height; y++) {
-                Space space = new Space(this, x, y);
-                spaces[x][y] = space;
-            }
-        }
+        core = new BoardCore(width, height, topology);
+        spaces = new Space[width * height];
         this.stepMode = false;
 
         //initializeCheckpoints();
     }
+    /**
+     * This is a constructor of the Board class for a board which wraps
+     * around at the edges.
+     * @param width int
+     * @param height int
+     * @param boardName String
+     */
+    public Board(int width, int height, @NotNull String boardName) {
+        this(width, height, boardName, Topology.WRAP_AROUND);
+    }
+
     /**
      * This is a constructor of the Board class.
      * @param width int
@@ -146,12 +170,73 @@ public class Board extends Subject {
     public Space getSpace(int x, int y) {
         if (x >= 0 && x < width &&
                 y >= 0 && y < height) {
-            return spaces[x][y];
+            return getSpace(core.cell(x, y));
         } else {
             return null;
         }
     }
 
+    /**
+     * Returns the space of the cell with the given number in the board
+     * core. The space is created, if it did not exist yet.
+     *
+     * @param cell the number of the cell
+     * @return the space
+     */
+    public Space getSpace(int cell) {
+        Space space = spaces[cell];
+        if (space == null) {
+            space = new Space(this, core.x(cell), core.y(cell));
+            spaces[cell] = space;
+        }
+        return space;
+    }
+
+    /**
+     * Returns the compact representation of the cells of this board.
+     *
+     * @return the board core
+     */
+    public BoardCore getCore() {
+        return core;
+    }
+
+    /**
+     * Returns the flow graph of the conveyor belts of this board. The graph
+     * is computed only once (unless belts or walls are added to the board
+     * later); the headings of the belts must not be changed after that.
+     *
+     * @return the flow graph of the conveyor belts
+     */
+    public ConveyorGraph getConveyorGraph() {
+        if (conveyorGraph == null) {
+            conveyorGraph = new ConveyorGraph(this);
+        }
+        return conveyorGraph;
+    }
+
+    /**
+     * Is called by the spaces of this board, when a belt or a wall was
+     * added, so that the flow graph of the belts is computed again.
+     */
+    void conveyorsChanged() {
+        conveyorGraph = null;
+    }
+
+    /**
+     * Adds the given walls to the cell with the given number, without
+     * creating the space of the cell (see {@link Space#addWall(Heading)}).
+     *
+     * @param cell the number of the cell
+     * @param walls the walls as a bit mask (see {@link BoardCore#getWalls(int)})
+     */
+    public void addWalls(int cell, int walls) {
+        if (walls != 0) {
+            core.addWalls(cell, walls);
+            conveyorsChanged();
+        }
+    }
+
     /**
      * This method gets the Players number.
      * @return int
@@ -167,6 +252,11 @@ public class Board extends Subject {
     public void addPlayer(@NotNull Player player) {
         if (player.board == this && !players.contains(player)) {
             players.add(player);
+            Space space = player.getSpace();
+            if (space != null) {
+                // the player was put on the board before it was added
+                core.setOccupant(space.cell, players.size() - 1);
+            }
             notifyChange();
         }
     }
@@ -260,6 +350,28 @@ public class Board extends Subject {
         }
     }
 
+    /**
+     * Returns the player who has won the game on this board; null as long
+     * as the game is not finished.
+     *
+     * @return the winner of the game or null
+     */
+    public Player getWinner() {
+        return winner;
+    }
+
+    /**
+     * Sets the winner of the game on this board.
+     *
+     * @param winner the player who won the game
+     */
+    public void setWinner(Player winner) {
+        if (winner != this.winner && (winner == null || players.contains(winner))) {
+            this.winner = winner;
+            notifyChange();
+        }
+    }
+
     /**
      * Get player number
      * @param player Player
@@ -275,33 +387,18 @@ public class Board extends Subject {
 
     /**
      * Returns the neighbour of the given space of the board in the given heading.
-     * The neighbour is returned only, if it can be reached from the given space
-     * (no walls or obstacles in either of the involved spaces); otherwise,
-     * null will be returned.
+     * The neighbours are computed once for the topology of the board, when the
+     * board is created. Walls are not taken into account. On a bounded board,
+     * spaces at the edge of the board do not have a neighbour beyond the edge,
+     * in which case null will be returned.
      *
      * @param space the space for which the neighbour should be computed
      * @param heading the heading of the neighbour
-     * @return the space in the given direction; null if there is no (reachable) neighbour
+     * @return the space in the given direction; null if there is no neighbour
      */
     public Space getNeighbour(@NotNull Space space, @NotNull Heading heading) {
-        int x = space.x;
-        int y = space.y;
-        switch (heading) {
-            case SOUTH:
-                y = (y + 1) % height;
-                break;
-            case WEST:
-                x = (x + width - 1) % width;
-                break;
-            case NORTH:
-                y = (y + height - 1) % height;
-                break;
-            case EAST:
-                x = (x + 1) % width;
-                break;
-        }
-
-        return getSpace(x, y);
+        int neighbour = core.neighbour(space.cell, heading);
+        return neighbour == BoardCore.NO_CELL ? null : getSpace(neighbour);
     }
 
     /**
@@ -0,0 +1,309 @@
+package dk.dtu.compute.se.pisd.roborally.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The compact representation of the state of all cells of a {@link Board}.
+ * Instead of one object per cell, the state is kept in flat primitive arrays
+ * indexed by the number of the cell ({@code y * width + x}): the walls of a
+ * cell as a bit mask with one bit per {@link Heading} (bit number is the
+ * ordinal of the heading), some flags for the elements on the cell, and the
+ * number of the player occupying the cell (-1 if the cell is empty). In
+ * addition, the neighbours of all cells are computed once for the
+ * {@link Topology} of the board, and for every flag, the occupied cells
+ * with that flag are indexed.<p></p>
+ *
+ * The {@link Space} objects of a board are only views on this state, which
+ * are created when they are needed. The state should be changed via the
+ * spaces and players only, so that their observers are informed; therefore,
+ * the methods changing the state are package private.
+ *
+ */
+public final class BoardCore {
+
+    /**
+     * Flag of a cell with a gear, which turns robots entering it.
+     */
+    public static final int GEAR = 1;
+
+    /**
+     * Flag of a cell with a checkpoint.
+     */
+    public static final int CHECKPOINT = 2;
+
+    /**
+     * Flag of a cell with a conveyor belt.
+     */
+    public static final int CONVEYOR = 4;
+
+    /**
+     * Flag of a cell with a gears field action, which turns the robot on
+     * the cell at the end of a register.
+     */
+    public static final int GEARS = 8;
+
+    /**
+     * Flag of a cell with some other field action.
+     */
+    public static final int OTHER_ACTION = 16;
+
+    /**
+     * The flags of the cells with field actions (for use with
+     * {@link #hasFlag(int, int)}).
+     */
+    public static final int ACTIONS = CHECKPOINT | CONVEYOR | GEARS | OTHER_ACTION;
+
+    private static final int NO_OF_FLAGS = 5;
+
+    /**
+     * The value of {@link #getOccupant(int)} for a cell without a player.
+     */
+    public static final int NO_PLAYER = -1;
+
+    /**
+     * The value of {@link #neighbour(int, Heading)} for a cell without a
+     * neighbour in that direction.
+     */
+    public static final int NO_CELL = -1;
+
+    public final int width;
+
+    public final int height;
+
+    public final Topology topology;
+
+    /**
+     * The numbers of the neighbour cells, one array per heading (indexed
+     * by the ordinal of the heading).
+     */
+    private final int[][] neighbours;
+
+    private final byte[] walls;
+
+    private final byte[] flags;
+
+    private final int[] occupants;
+
+    /**
+     * For every flag (indexed by the number of its bit), the cells with
+     * this flag which are occupied by a player, in no particular order.
+     * These indexes are maintained when players move, so that the elements
+     * of the board which need to be activated can be found without looking
+     * at all cells or all players.
+     */
+    private final int[][] occupied = new int[NO_OF_FLAGS][4];
+
+    private final int[] occupiedCounts = new int[NO_OF_FLAGS];
+
+    BoardCore(int width, int height, @NotNull Topology topology) {
+        this.width = width;
+        this.height = height;
+        this.topology = topology;
+        int cells = width * height;
+        walls = new byte[cells];
+        flags = new byte[cells];
+        occupants = new int[cells];
+        Arrays.fill(occupants, NO_PLAYER);
+        neighbours = new int[Heading.values().length][cells];
+        computeNeighbours();
+    }
+
+    private void computeNeighbours() {
+        boolean wrap = topology == Topology.WRAP_AROUND;
+        int[] south = neighbours[Heading.SOUTH.ordinal()];
+        int[] west = neighbours[Heading.WEST.ordinal()];
+        int[] north = neighbours[Heading.NORTH.ordinal()];
+        int[] east = neighbours[Heading.EAST.ordinal()];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int cell = cell(x, y);
+                if (y + 1 < height) {
+                    south[cell] = cell(x, y + 1);
+                } else {
+                    south[cell] = wrap ? cell(x, 0) : NO_CELL;
+                }
+                if (x > 0) {
+                    west[cell] = cell(x - 1, y);
+                } else {
+                    west[cell] = wrap ? cell(width - 1, y) : NO_CELL;
+                }
+                if (y > 0) {
+                    north[cell] = cell(x, y - 1);
+                } else {
+                    north[cell] = wrap ? cell(x, height - 1) : NO_CELL;
+                }
+                if (x + 1 < width) {
+                    east[cell] = cell(x + 1, y);
+                } else {
+                    east[cell] = wrap ? cell(0, y) : NO_CELL;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of cells of the board.
+     *
+     * @return the number of cells
+     */
+    public int size() {
+        return walls.length;
+    }
+
+    /**
+     * Returns the number of the cell at the given position; the position
+     * must be on the board.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the number of the cell
+     */
+    public int cell(int x, int y) {
+        return y * width + x;
+    }
+
+    public int x(int cell) {
+        return cell % width;
+    }
+
+    public int y(int cell) {
+        return cell / width;
+    }
+
+    /**
+     * Returns the number of the neighbour of the given cell in the given
+     * direction.
+     *
+     * @param cell the number of the cell
+     * @param heading the direction
+     * @return the number of the neighbour cell, or {@link #NO_CELL} if the
+     *         cell is at the edge of a bounded board
+     */
+    public int neighbour(int cell, @NotNull Heading heading) {
+        return neighbours[heading.ordinal()][cell];
+    }
+
+    /**
+     * Returns the walls of the given cell as a bit mask, where the bit
+     * with the number of the ordinal of a heading is set, if the cell has
+     * a wall on that side.
+     *
+     * @param cell the number of the cell
+     * @return the bit mask of the walls
+     */
+    public int getWalls(int cell) {
+        return walls[cell];
+    }
+
+    public boolean hasWall(int cell, @NotNull Heading heading) {
+        return ((walls[cell] >> heading.ordinal()) & 1) != 0;
+    }
+
+    void addWall(int cell, @NotNull Heading heading) {
+        walls[cell] |= (byte) heading.mask();
+    }
+
+    void addWalls(int cell, int walls) {
+        this.walls[cell] |= (byte) walls;
+    }
+
+    public int getFlags(int cell) {
+        return flags[cell];
+    }
+
+    public boolean hasFlag(int cell, int flag) {
+        return (flags[cell] & flag) != 0;
+    }
+
+    void setFlag(int cell, int flag, boolean value) {
+        int old = flags[cell];
+        if (value) {
+            flags[cell] |= (byte) flag;
+        } else {
+            flags[cell] &= (byte) ~flag;
+        }
+        if (occupants[cell] != NO_PLAYER) {
+            updateOccupied(cell, old & ~flags[cell], flags[cell] & ~old);
+        }
+    }
+
+    /**
+     * Returns the number of cells with the given flag, which are occupied by
+     * a player.
+     *
+     * @param flag the flag (a single bit)
+     * @return the number of occupied cells with the flag
+     */
+    public int getOccupiedCount(int flag) {
+        return occupiedCounts[Integer.numberOfTrailingZeros(flag)];
+    }
+
+    /**
+     * Copies the cells with the given flag, which are occupied by a player,
+     * to the given array, which must be large enough (see
+     * {@link #getOccupiedCount(int)}).
+     *
+     * @param flag the flag (a single bit)
+     * @param cells the array for the cells
+     * @return the number of occupied cells with the flag
+     */
+    public int getOccupiedCells(int flag, int[] cells) {
+        int index = Integer.numberOfTrailingZeros(flag);
+        int count = occupiedCounts[index];
+        System.arraycopy(occupied[index], 0, cells, 0, count);
+        return count;
+    }
+
+    /**
+     * Removes the given cell from the indexes of the removed flags and adds
+     * it to the indexes of the added flags.
+     */
+    private void updateOccupied(int cell, int removed, int added) {
+        for (int index = 0; index < NO_OF_FLAGS; index++) {
+            int flag = 1 << index;
+            int[] cells = occupied[index];
+            int count = occupiedCounts[index];
+            if ((removed & flag) != 0) {
+                for (int i = 0; i < count; i++) {
+                    if (cells[i] == cell) {
+                        cells[i] = cells[count - 1];
+                        occupiedCounts[index] = count - 1;
+                        break;
+                    }
+                }
+            } else if ((added & flag) != 0) {
+                if (count == cells.length) {
+                    cells = Arrays.copyOf(cells, 2 * count);
+                    occupied[index] = cells;
+                }
+                cells[count] = cell;
+                occupiedCounts[index] = count + 1;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of the player on the given cell.
+     *
+     * @param cell the number of the cell
+     * @return the number of the player on the board, or {@link #NO_PLAYER}
+     */
+    public int getOccupant(int cell) {
+        return occupants[cell];
+    }
+
+    void setOccupant(int cell, int playerNumber) {
+        boolean wasOccupied = occupants[cell] != NO_PLAYER;
+        occupants[cell] = playerNumber;
+        if (flags[cell] != 0 && wasOccupied != (playerNumber != NO_PLAYER)) {
+            if (wasOccupied) {
+                updateOccupied(cell, flags[cell], 0);
+            } else {
+                updateOccupied(cell, 0, flags[cell]);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,192 @@
+package dk.dtu.compute.se.pisd.roborally.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.random.RandomGenerator;
+
+/**
+ * A pile of command cards, like the deck or the discard pile of a player.
+ * Since all cards of a command are the same (see {@link CommandCard#of(Command)}),
+ * the pile stores only the ordinals of the commands, in a ring buffer; cards
+ * can be put on and taken from the top as well as the bottom of the pile
+ * without moving the other cards. The cards are indexed and iterated from
+ * the bottom to the top.
+ *
+ */
+public final class CardPile implements Iterable<CommandCard> {
+
+    private static final Command[] COMMANDS = Command.values();
+
+    /**
+     * The ordinals of the commands of the cards; the length is a power of two.
+     */
+    private byte[] ordinals = new byte[16];
+
+    /**
+     * The index of the bottom card in {@link #ordinals}.
+     */
+    private int bottom;
+
+    private int size;
+
+    /**
+     * The number of changes of the pile, so that it is known whether the
+     * pile needs to be saved.
+     */
+    private int changes;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the card at the given position, counted from the bottom.
+     *
+     * @param index the position of the card
+     * @return the card
+     * @throws IndexOutOfBoundsException if there is no card at the position
+     */
+    public CommandCard get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return CommandCard.of(COMMANDS[ordinals[slot(index)]]);
+    }
+
+    /**
+     * Returns the card on the top of the pile without taking it.
+     *
+     * @return the top card, or null if the pile is empty
+     */
+    public CommandCard peek() {
+        return size > 0 ? get(size - 1) : null;
+    }
+
+    /**
+     * Puts the given card on the top of the pile.
+     *
+     * @param card the card
+     */
+    public void push(@NotNull CommandCard card) {
+        ensureCapacity();
+        ordinals[slot(size)] = (byte) card.command.ordinal();
+        size++;
+        changes++;
+    }
+
+    /**
+     * Puts the given card at the bottom of the pile.
+     *
+     * @param card the card
+     */
+    public void addBottom(@NotNull CommandCard card) {
+        ensureCapacity();
+        bottom = (bottom - 1) & (ordinals.length - 1);
+        ordinals[bottom] = (byte) card.command.ordinal();
+        size++;
+        changes++;
+    }
+
+    /**
+     * Takes the card from the top of the pile.
+     *
+     * @return the top card, or null if the pile is empty
+     */
+    public CommandCard pop() {
+        if (size == 0) {
+            return null;
+        }
+        size--;
+        changes++;
+        return CommandCard.of(COMMANDS[ordinals[slot(size)]]);
+    }
+
+    /**
+     * Puts all cards of this pile on the top of the given pile (keeping
+     * their order), so that this pile is empty afterwards.
+     *
+     * @param pile the other pile
+     */
+    public void moveAllTo(@NotNull CardPile pile) {
+        for (int i = 0; i < size; i++) {
+            pile.ensureCapacity();
+            pile.ordinals[pile.slot(pile.size)] = ordinals[slot(i)];
+            pile.size++;
+        }
+        pile.changes++;
+        clear();
+    }
+
+    /**
+     * Takes all cards from the pile.
+     */
+    public void clear() {
+        if (size > 0) {
+            bottom = 0;
+            size = 0;
+            changes++;
+        }
+    }
+
+    /**
+     * Shuffles the cards of the pile (Fisher-Yates).
+     *
+     * @param random the random number generator
+     */
+    public void shuffle(@NotNull RandomGenerator random) {
+        for (int i = size - 1; i > 0; i--) {
+            int a = slot(i);
+            int b = slot(random.nextInt(i + 1));
+            byte ordinal = ordinals[a];
+            ordinals[a] = ordinals[b];
+            ordinals[b] = ordinal;
+        }
+        changes++;
+    }
+
+    int changes() {
+        return changes;
+    }
+
+    @Override
+    public @NotNull Iterator<CommandCard> iterator() {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public CommandCard next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return get(next++);
+            }
+        };
+    }
+
+    private int slot(int index) {
+        return (bottom + index) & (ordinals.length - 1);
+    }
+
+    private void ensureCapacity() {
+        if (size == ordinals.length) {
+            // the cards, which wrapped around to the start of the ring,
+            // are moved behind the end of the old ring
+            byte[] grown = Arrays.copyOf(ordinals, 2 * ordinals.length);
+            System.arraycopy(ordinals, 0, grown, ordinals.length, bottom);
+            ordinals = grown;
+        }
+    }
+
+}
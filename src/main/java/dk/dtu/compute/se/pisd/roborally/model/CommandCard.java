@@ -34,14 +34,36 @@ public class CommandCard extends Subject {
 
     final public Command command;
 
+    private static final CommandCard[] CARDS;
+
+    static {
+        Command[] commands = Command.values();
+        CARDS = new CommandCard[commands.length];
+        for (Command command : commands) {
+            CARDS[command.ordinal()] = new CommandCard(command);
+        }
+    }
+
     /**
      * Constructor of CommandCard
      * @param command Command
      */
-    public CommandCard(@NotNull Command command) {
+    private CommandCard(@NotNull Command command) {
         this.command = command;
     }
 
+    /**
+     * Returns the card with the given command. There is only one card for
+     * every command, which is shared by all fields and piles of all games
+     * (cards cannot be changed).
+     *
+     * @param command Command
+     * @return the card
+     */
+    public static CommandCard of(@NotNull Command command) {
+        return CARDS[command.ordinal()];
+    }
+
     /**
      * Get the name
      * @return String
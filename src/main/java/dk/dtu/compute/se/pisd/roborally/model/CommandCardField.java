@@ -37,6 +37,8 @@ public class CommandCardField extends Subject {
 
     private boolean visible;
 
+    private boolean dirty = true;
+
     /**
      * Constructor of CommandCardField
      * @param player Player
@@ -62,6 +64,7 @@ public class CommandCardField extends Subject {
     public void setCard(CommandCard card) {
         if (card != this.card) {
             this.card = card;
+            dirty = true;
             notifyChange();
         }
     }
@@ -81,7 +84,25 @@ public class CommandCardField extends Subject {
     public void setVisible(boolean visible) {
         if (visible != this.visible) {
             this.visible = visible;
+            dirty = true;
             notifyChange();
         }
     }
+
+    /**
+     * Returns whether the card or the visibility of this field changed
+     * since it was saved or loaded the last time.
+     *
+     * @return true if the field needs to be saved
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Marks this field as saved.
+     */
+    public void markClean() {
+        dirty = false;
+    }
 }
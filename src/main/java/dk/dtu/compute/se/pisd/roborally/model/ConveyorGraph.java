@@ -0,0 +1,206 @@
+package dk.dtu.compute.se.pisd.roborally.model;
+
+import dk.dtu.compute.se.pisd.roborally.controller.ConveyorBelt;
+import dk.dtu.compute.se.pisd.roborally.controller.FieldAction;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The flow graph of the conveyor belts of a {@link Board}. For every cell
+ * with a conveyor belt, the graph knows the successor cell, to which a robot
+ * on the belt is moved; the successor is {@link BoardCore#NO_CELL} if a wall
+ * or the edge of a bounded board blocks the belt. The graph is computed once
+ * from the belts and walls of the board (see {@link Board#getConveyorGraph()}).
+ * <p></p>
+ *
+ * The robots on all belts are moved at the same time by
+ * {@link #resolveMoves(int[], int, int[])}, which decides which robots can
+ * move: a robot does not move if its belt is blocked, if another robot is
+ * moved to the same cell, if it would swap its cell with another robot, or if
+ * the cell is occupied by a robot which does not move (belts do not push).
+ * Since the decision for a robot depends only on the robots in front of it,
+ * chains of robots are resolved in time linear in the number of robots on the
+ * belts; robots on a closed cycle of belts move together, unless another
+ * robot is moved into the cycle. A graph is not thread safe, since it uses
+ * some arrays for resolving the moves, which are allocated only once.
+ *
+ */
+public final class ConveyorGraph {
+
+    private static final int NO_CLAIM = -1;
+
+    private static final int CONFLICT = -2;
+
+    private final BoardCore core;
+
+    /**
+     * The successors of all cells; {@link BoardCore#NO_CELL} for cells
+     * without a belt.
+     */
+    private final int[] successors;
+
+    /**
+     * The cells with a belt.
+     */
+    private final int[] belts;
+
+    /**
+     * The robot moving to a cell, {@link #NO_CLAIM} if no robot moves to
+     * the cell or {@link #CONFLICT} if several robots move to it (only
+     * used while resolving the moves).
+     */
+    private final int[] claims;
+
+    /**
+     * The index of the robot on a cell in the robots given to
+     * {@link #resolveMoves(int[], int, int[])}, or {@link #NO_CLAIM} (only
+     * used while resolving the moves).
+     */
+    private final int[] robotIndexes;
+
+    /**
+     * The robots which are blocked and still need to be propagated to the
+     * robots behind them (only used while resolving the moves).
+     */
+    private int[] blocked = new int[0];
+
+    ConveyorGraph(@NotNull Board board) {
+        this.core = board.getCore();
+        int size = core.size();
+        successors = new int[size];
+        claims = new int[size];
+        robotIndexes = new int[size];
+        Arrays.fill(successors, BoardCore.NO_CELL);
+        Arrays.fill(claims, NO_CLAIM);
+        Arrays.fill(robotIndexes, NO_CLAIM);
+
+        int count = 0;
+        int[] cells = new int[size];
+        for (int cell = 0; cell < size; cell++) {
+            if (core.hasFlag(cell, BoardCore.CONVEYOR)) {
+                Heading heading = heading(board.getSpace(cell));
+                if (heading != null) {
+                    cells[count++] = cell;
+                    successors[cell] = successor(cell, heading);
+                }
+            }
+        }
+        belts = Arrays.copyOf(cells, count);
+    }
+
+    private static Heading heading(Space space) {
+        for (FieldAction action : space.getActions()) {
+            if (action instanceof ConveyorBelt belt) {
+                return belt.getHeading();
+            }
+        }
+        return null;
+    }
+
+    private int successor(int cell, Heading heading) {
+        int target = core.neighbour(cell, heading);
+        if (target == BoardCore.NO_CELL ||
+                core.hasWall(cell, heading) ||
+                core.hasWall(target, heading.opposite())) {
+            return BoardCore.NO_CELL;
+        }
+        return target;
+    }
+
+    /**
+     * Returns the cell, to which a robot on the given cell is moved by the
+     * belt on the cell.
+     *
+     * @param cell the number of the cell
+     * @return the successor of the cell; {@link BoardCore#NO_CELL} if there
+     *         is no belt on the cell or the belt is blocked
+     */
+    public int successor(int cell) {
+        return successors[cell];
+    }
+
+    /**
+     * Returns the number of cells with a belt.
+     *
+     * @return the number of belts
+     */
+    public int size() {
+        return belts.length;
+    }
+
+    /**
+     * Returns whether the board has no belts at all.
+     *
+     * @return true if there are no belts
+     */
+    public boolean isEmpty() {
+        return belts.length == 0;
+    }
+
+    /**
+     * Decides, which robots are moved by the belts, when all belts move at
+     * the same time. The robots are given by their cells; these must contain
+     * all robots on belts (see {@link BoardCore#getOccupiedCells(int, int[])}),
+     * other robots may be left out. For every robot, the cell after the move
+     * is stored in <code>targets</code>; it is the robot's current cell if the
+     * robot does not move.
+     *
+     * @param cells the cells of the robots
+     * @param robots the number of robots
+     * @param targets the array for the cells of the robots after the move
+     * @return the number of robots which are moved
+     */
+    public int resolveMoves(int[] cells, int robots, int[] targets) {
+        if (blocked.length < robots) {
+            blocked = new int[robots];
+        }
+        for (int i = 0; i < robots; i++) {
+            robotIndexes[cells[i]] = i;
+            int target = successors[cells[i]];
+            targets[i] = target;
+            if (target != BoardCore.NO_CELL) {
+                claims[target] = claims[target] == NO_CLAIM ? i : CONFLICT;
+            }
+        }
+
+        int top = 0;
+        for (int i = 0; i < robots; i++) {
+            int target = targets[i];
+            if (target != BoardCore.NO_CELL) {
+                // a robot, which was not given, is not on a belt and does not move
+                int other = robotIndexes[target];
+                if (claims[target] == CONFLICT ||
+                        (core.getOccupant(target) != BoardCore.NO_PLAYER &&
+                                (other == NO_CLAIM || targets[other] == BoardCore.NO_CELL || targets[other] == cells[i]))) {
+                    targets[i] = BoardCore.NO_CELL;
+                    blocked[top++] = i;
+                }
+            }
+        }
+        // a robot which does not move blocks the robot moving to its cell
+        while (top > 0) {
+            int robot = blocked[--top];
+            int behind = claims[cells[robot]];
+            if (behind >= 0 && targets[behind] != BoardCore.NO_CELL) {
+                targets[behind] = BoardCore.NO_CELL;
+                blocked[top++] = behind;
+            }
+        }
+
+        int moved = 0;
+        for (int i = 0; i < robots; i++) {
+            robotIndexes[cells[i]] = NO_CLAIM;
+            if (successors[cells[i]] != BoardCore.NO_CELL) {
+                claims[successors[cells[i]]] = NO_CLAIM;
+            }
+            if (targets[i] == BoardCore.NO_CELL) {
+                targets[i] = cells[i];
+            } else {
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+}
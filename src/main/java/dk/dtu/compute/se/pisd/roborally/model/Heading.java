@@ -31,12 +31,36 @@ public enum Heading {
 
     SOUTH, WEST, NORTH, EAST;
 
+    // the values and the opposite headings are computed only once, since
+    // values() creates a new array on every call
+    private static final Heading[] VALUES = values();
+
+    private static final Heading[] OPPOSITES = { NORTH, EAST, SOUTH, WEST };
+
+    /**
+     * Returns the bit of this heading in bit masks of headings (like the
+     * walls of a cell in the {@link BoardCore}).
+     *
+     * @return the bit of this heading
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Get the opposite Heading
+     * @return Heading
+     */
+    public Heading opposite() {
+        return OPPOSITES[ordinal()];
+    }
+
     /**
      * Get next Heading
      * @return Heading
      */
     public Heading next() {
-        return values()[(this.ordinal() + 1) % values().length];
+        return VALUES[(this.ordinal() + 1) % VALUES.length];
     }
 
     /**
@@ -44,6 +68,6 @@ public enum Heading {
      * @return Heading
      */
     public Heading prev() {
-        return values()[(this.ordinal() + values().length - 1) % values().length];
+        return VALUES[(this.ordinal() + VALUES.length - 1) % VALUES.length];
     }
 }
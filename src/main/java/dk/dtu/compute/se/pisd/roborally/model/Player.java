@@ -22,13 +22,11 @@
 package dk.dtu.compute.se.pisd.roborally.model;
 
 import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
-import dk.dtu.compute.se.pisd.roborally.controller.GameController;
-import dk.dtu.compute.se.pisd.roborally.view.PlayerView;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.Stack;
 
 import static dk.dtu.compute.se.pisd.roborally.model.Heading.SOUTH;
 
@@ -55,7 +53,23 @@ public class Player extends Subject {
     private CommandCardField[] program;
     private CommandCardField[] cards;
 
-    private Stack<CommandCard> stack;
+    private final CardPile deck = new CardPile();
+
+    private final CardPile discardPile = new CardPile();
+
+    /**
+     * Whether the state of the player, which is saved in the database
+     * (position, heading and collected checkpoints), changed since
+     * the player was saved or loaded the last time.
+     */
+    private boolean dirty = true;
+
+    /**
+     * The number of changes of the deck and the discard pile, when the
+     * player was saved or loaded the last time.
+     */
+    private int savedDeckChanges = -1;
+    private int savedDiscardChanges = -1;
 
     private Set<Integer> collectedCheckpoints = new HashSet<>();
 
@@ -116,8 +130,6 @@ public class Player extends Subject {
         for (int i = 0; i < cards.length; i++) {
             cards[i] = new CommandCardField(this);
         }
-
-        stack = new Stack<>();
     }
 
     /**
@@ -125,8 +137,22 @@ public class Player extends Subject {
      * @param checkpointId
      */
     public void collectedCheckpoints(int checkpointId){
-        if(!collectedCheckpoints.contains(checkpointId))
+        if(!collectedCheckpoints.contains(checkpointId)) {
             collectedCheckpoints.add(checkpointId);
+            dirty = true;
+            notifyChange();
+        }
+    }
+
+    /**
+     * removes all checkpoints from the player's collected checkpoints
+     */
+    public void clearCollectedCheckpoints() {
+        if (!collectedCheckpoints.isEmpty()) {
+            collectedCheckpoints.clear();
+            dirty = true;
+            notifyChange();
+        }
     }
 
     /**
@@ -135,7 +161,15 @@ public class Player extends Subject {
      * @return
      */
     public boolean hasCollectedAllCheckpoints(Set<Integer> allCheckpoint){
-        return collectedCheckpoints.containsAll(GameController.getCollectedCheckpoints());
+        return collectedCheckpoints.containsAll(allCheckpoint);
+    }
+
+    /**
+     * retrieves the ids of the checkpoints collected by the player
+     * @return an unmodifiable view of the ids
+     */
+    public Set<Integer> getCollectedCheckpoints() {
+        return Collections.unmodifiableSet(collectedCheckpoints);
     }
 
     /**
@@ -164,6 +198,7 @@ public class Player extends Subject {
     public void setName(String name) {
         if (name != null && !name.equals(this.name)) {
             this.name = name;
+            dirty = true;
             notifyChange();
             if (space != null) {
                 space.playerChanged();
@@ -187,6 +222,7 @@ public class Player extends Subject {
      */
     public void setColor(String color) {
         this.color = color;
+        dirty = true;
         notifyChange();
         if (space != null) {
             space.playerChanged();
@@ -229,6 +265,7 @@ public class Player extends Subject {
         if (space != oldSpace &&
                 (space == null || space.board == this.board)) {
             this.space = space;
+            dirty = true;
             if (oldSpace != null) {
                 oldSpace.setPlayer(null);
             }
@@ -256,6 +293,7 @@ public class Player extends Subject {
     public void setHeading(@NotNull Heading heading) {
         if (heading != this.heading) {
             this.heading = heading;
+            dirty = true;
             notifyChange();
             if (space != null) {
                 space.playerChanged();
@@ -284,12 +322,55 @@ public class Player extends Subject {
     }
 
     /**
-     * Gets the card deck
+     * Gets the card deck, from which the cards of the player are dealt
      * @return
      */
-    public Stack<CommandCard> getCardDeck() {
-        return stack;
+    public CardPile getCardDeck() {
+        return deck;
     }
-}
 
+    /**
+     * Gets the discard pile, onto which the cards of the player are put
+     * after a round
+     * @return
+     */
+    public CardPile getDiscardPile() {
+        return discardPile;
+    }
+
+    /**
+     * Returns whether the position, heading or collected checkpoints of
+     * the player changed since it was saved or loaded the last time.
+     *
+     * @return true if the player needs to be saved
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Returns whether the card deck or the discard pile of the player
+     * changed since it was saved or loaded the last time.
+     *
+     * @return true if the deck needs to be saved
+     */
+    public boolean isDeckDirty() {
+        return deck.changes() != savedDeckChanges || discardPile.changes() != savedDiscardChanges;
+    }
 
+    /**
+     * Marks the player, its deck and all its program and card fields as
+     * saved; this should be called after the player was saved or loaded.
+     */
+    public void markClean() {
+        dirty = false;
+        savedDeckChanges = deck.changes();
+        savedDiscardChanges = discardPile.changes();
+        for (CommandCardField field : program) {
+            field.markClean();
+        }
+        for (CommandCardField field : cards) {
+            field.markClean();
+        }
+    }
+}
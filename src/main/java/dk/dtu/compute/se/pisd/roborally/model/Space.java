@@ -21,32 +21,59 @@
  */
 package dk.dtu.compute.se.pisd.roborally.model;
 
-import com.google.gson.JsonArray;
-import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
-import javafx.util.Pair;
-
 import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
+import dk.dtu.compute.se.pisd.roborally.controller.CheckPointFieldAction;
+import dk.dtu.compute.se.pisd.roborally.controller.ConveyorBelt;
 import dk.dtu.compute.se.pisd.roborally.controller.FieldAction;
+import dk.dtu.compute.se.pisd.roborally.controller.GearsFieldAction;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
-import static dk.dtu.compute.se.pisd.roborally.model.Heading.*;
-
 /**
- * Space class of the Roborally game
+ * Space class of the Roborally game. A space is a view on one cell of the
+ * {@link BoardCore} of its board: the walls, the flags and the player on
+ * the space are kept in the board core; only the field actions are kept
+ * in the space itself.
  *
  * @author Ekkart Kindler, ekki@dtu.dk
  *
  */
 public class Space extends Subject {
 
+    /**
+     * The lists of walls for all possible bit masks of walls, so that
+     * {@link #getWalls()} does not need to create a new list.
+     */
+    private static final List<List<Heading>> WALL_LISTS = createWallLists();
+
+    private static List<List<Heading>> createWallLists() {
+        Heading[] headings = Heading.values();
+        List<List<Heading>> lists = new ArrayList<>(1 << headings.length);
+        for (int mask = 0; mask < 1 << headings.length; mask++) {
+            List<Heading> walls = new ArrayList<>(headings.length);
+            for (Heading heading : headings) {
+                if ((mask & heading.mask()) != 0) {
+                    walls.add(heading);
+                }
+            }
+            lists.add(Collections.unmodifiableList(walls));
+        }
+        return Collections.unmodifiableList(lists);
+    }
+
     public final Board board;
 
     public final int x;
     public final int y;
 
-    private boolean hasGear;
+    /**
+     * The number of the cell of this space in the board core.
+     */
+    public final int cell;
+
+    private final BoardCore core;
 
 
     /**
@@ -54,64 +81,39 @@ public class Space extends Subject {
      *
      * @author Martin Dahl Lund, s235454
      */
-    
-    private boolean isCheckpoint;
-
     public boolean isCheckpoint(){
-        return isCheckpoint;
+        return core.hasFlag(cell, BoardCore.CHECKPOINT);
     }
     public void setCheckpoint(boolean isCheckpoint){
-        this.isCheckpoint = isCheckpoint;
+        core.setFlag(cell, BoardCore.CHECKPOINT, isCheckpoint);
     }
 
-    private List<Heading> walls;
+    // the actions are created only for spaces which have actions
     private List<FieldAction> actions;
+    private List<FieldAction> actionsView;
 
     /**
+     * Checks whether there is a wall on this space in the direction the
+     * player is heading, i.e. whether the wall prevents the player from
+     * leaving this space.
+     *
      * @author Anton Fu Hou Dong, s235460
      * @return boolean
      */
     public boolean hasCurrentWall(Player player) {
-        var heading = player.getHeading();
-        if(EAST.equals(heading)){
-            return walls.contains(EAST);
-        }
-        if(WEST.equals(heading)){
-            return walls.contains(WEST);
-        }
-        if(NORTH.equals(heading)){
-            return walls.contains(NORTH);
-        }
-        if(SOUTH.equals(heading)){
-            return walls.contains(SOUTH);
-        }
-        return false;
+        return core.hasWall(cell, player.getHeading());
     }
 
     /**
-     * Checks if the target has a wall
+     * Checks if the target has a wall, i.e. whether there is a wall on the
+     * side of this space, from which the player would enter it.
      * @param player
      * @return
      */
     public boolean hasTargetWall(Player player) {
-        var heading = player.getHeading();
-        if(EAST.equals(heading)){
-            return walls.contains(WEST);
-        }
-        if(WEST.equals(heading)){
-            return walls.contains(EAST);
-        }
-        if(NORTH.equals(heading)){
-            return walls.contains(SOUTH);
-        }
-        if(SOUTH.equals(heading)){
-            return walls.contains(NORTH);
-        }
-        return false;
+        return core.hasWall(cell, player.getHeading().opposite());
     }
 
-    private Player player;
-
     /**
      * Constructor of Space
      * @param board Board
@@ -122,15 +124,49 @@ public class Space extends Subject {
         this.board = board;
         this.x = x;
         this.y = y;
-        player = null;
-        walls = new ArrayList<Heading>();
-        actions = new ArrayList<>();
+        this.core = board.getCore();
+        this.cell = core.cell(x, y);
     }
 
 
-
+    /**
+     * Adds a field action to this space. The flags of the cell in the
+     * board core are updated according to the type of the action.
+     *
+     * @param action the action
+     */
     public void addAction(FieldAction action){
+        if (actions == null) {
+            actions = new ArrayList<>(1);
+            actionsView = Collections.unmodifiableList(actions);
+        }
         actions.add(action);
+        int flag = getElementFlag(action);
+        core.setFlag(cell, flag, true);
+        if (flag == BoardCore.CONVEYOR) {
+            board.conveyorsChanged();
+        }
+    }
+
+    /**
+     * Returns the flag of the cells in the {@link BoardCore}, which have a
+     * field action of the same type as the given action. The game controller
+     * activates the actions of each type in a stage of its own (see
+     * {@link BoardCore#getOccupiedCells(int, int[])}).
+     *
+     * @param action the field action
+     * @return the flag of the type of the action
+     */
+    public static int getElementFlag(FieldAction action) {
+        if (action instanceof ConveyorBelt) {
+            return BoardCore.CONVEYOR;
+        } else if (action instanceof GearsFieldAction) {
+            return BoardCore.GEARS;
+        } else if (action instanceof CheckPointFieldAction) {
+            return BoardCore.CHECKPOINT;
+        } else {
+            return BoardCore.OTHER_ACTION;
+        }
     }
 
     /**
@@ -138,7 +174,8 @@ public class Space extends Subject {
      * @return Player
      */
     public Player getPlayer() {
-        return player;
+        int occupant = core.getOccupant(cell);
+        return occupant == BoardCore.NO_PLAYER ? null : board.getPlayer(occupant);
     }
 
     /**
@@ -146,10 +183,10 @@ public class Space extends Subject {
      * @param player Player
      */
     public void setPlayer(Player player) {
-        Player oldPlayer = this.player;
+        Player oldPlayer = getPlayer();
         if (player != oldPlayer &&
                 (player == null || board == player.board)) {
-            this.player = player;
+            core.setOccupant(cell, player == null ? BoardCore.NO_PLAYER : board.getPlayerNumber(player));
             if (oldPlayer != null) {
                 // this should actually not happen
                 oldPlayer.setSpace(null);
@@ -176,7 +213,7 @@ public class Space extends Subject {
      * @param hasGear
      */
     public void setHasGear(boolean hasGear) {
-        this.hasGear = hasGear;
+        core.setFlag(cell, BoardCore.GEAR, hasGear);
     }
 
     /**
@@ -184,16 +221,27 @@ public class Space extends Subject {
      * @return
      */
     public boolean hasGear() {
-        return hasGear;
+        return core.hasFlag(cell, BoardCore.GEAR);
     }
 
+    /**
+     * Checks whether this space has a wall on the given side.
+     *
+     * @param heading the side of the space
+     * @return true if there is a wall on that side
+     */
+    public boolean hasWall(Heading heading) {
+        return core.hasWall(cell, heading);
+    }
 
     /**
-     * checks if there's a wall
-     * @return
+     * Returns the walls of this space. The list cannot be modified; walls
+     * are added by {@link #addWall(Heading)}.
+     *
+     * @return the headings of the walls of this space
      */
     public List<Heading> getWalls() {
-        return walls;
+        return WALL_LISTS.get(core.getWalls(cell));
     }
 
     /**
@@ -201,11 +249,18 @@ public class Space extends Subject {
      * @param wall
      */
     public void addWall(Heading wall){
-        walls.add(wall);
+        core.addWall(cell, wall);
+        board.conveyorsChanged();
     }
 
+    /**
+     * Returns the field actions of this space. The list cannot be modified;
+     * actions are added by {@link #addAction(FieldAction)}.
+     *
+     * @return the field actions of this space
+     */
     public List<FieldAction> getActions() {
-        return actions;
+        return actions == null ? Collections.emptyList() : actionsView;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,21 @@
+package dk.dtu.compute.se.pisd.roborally.model;
+
+/**
+ * The topology of a board, which determines the neighbours of the spaces
+ * at the edges of the board.
+ *
+ */
+public enum Topology {
+
+    /**
+     * The edges of the board are connected with the opposite edges, so
+     * that a robot leaving the board on one side enters it on the other.
+     */
+    WRAP_AROUND,
+
+    /**
+     * The spaces at the edges of the board have no neighbours beyond the
+     * edges, so that robots cannot leave the board.
+     */
+    BOUNDED
+}
@@ -0,0 +1,49 @@
+package dk.dtu.compute.se.pisd.roborally.simulation;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The setup of a single simulated game: the board on which the game is
+ * played, the number of players, the strategy controlling the players and
+ * the maximum number of rounds after which the game is given up. If the
+ * setup has a seed, the cards are dealt with that seed, so that the game
+ * can be replayed.
+ *
+ */
+public class GameSetup {
+
+    public final String boardName;
+
+    public final int noOfPlayers;
+
+    public final ProgrammingStrategy strategy;
+
+    public final int maxRounds;
+
+    /**
+     * The seed for dealing the cards; null for a random seed.
+     */
+    public final Long seed;
+
+    public GameSetup(@NotNull String boardName, int noOfPlayers, @NotNull ProgrammingStrategy strategy, int maxRounds, Long seed) {
+        this.boardName = boardName;
+        this.noOfPlayers = noOfPlayers;
+        this.strategy = strategy;
+        this.maxRounds = maxRounds;
+        this.seed = seed;
+    }
+
+    public GameSetup(@NotNull String boardName, int noOfPlayers, @NotNull ProgrammingStrategy strategy, int maxRounds) {
+        this(boardName, noOfPlayers, strategy, maxRounds, null);
+    }
+
+    public GameSetup(@NotNull String boardName, int noOfPlayers) {
+        this(boardName, noOfPlayers, ProgrammingStrategy.IN_ORDER, HeadlessGame.DEFAULT_MAX_ROUNDS);
+    }
+
+    @Override
+    public String toString() {
+        return boardName + " (" + noOfPlayers + " players)";
+    }
+
+}
@@ -0,0 +1,225 @@
+package dk.dtu.compute.se.pisd.roborally.simulation;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.CommandCard;
+import dk.dtu.compute.se.pisd.roborally.model.Phase;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Consumer;
+
+/**
+ * Runs a game of RoboRally without any user interface. All players are
+ * controlled by a {@link ProgrammingStrategy}, and the game is driven through
+ * the usual operations of the {@link GameController} (programming phase,
+ * activation phase and player interaction) on a plain {@link Board}. The
+ * winner is reported via a callback instead of a dialog. Since the game
+ * does not depend on JavaFX, many of these games can be run in the same JVM.
+ *
+ */
+public class HeadlessGame {
+
+    /**
+     * A listener, which is informed after every single step of the activation
+     * phase, i.e. after a player has executed their card in a register (and
+     * after the field actions at the end of a register).
+     */
+    public interface StepListener {
+
+        /**
+         * Called after a step of the activation phase was executed.
+         *
+         * @param round the round of the game (starting with 1)
+         * @param register the register which was executed
+         */
+        void stepExecuted(int round, int register);
+
+    }
+
+    /**
+     * The default maximum number of rounds, after which a game without a
+     * winner is given up.
+     */
+    public static final int DEFAULT_MAX_ROUNDS = 1000;
+
+    private final Board board;
+
+    private final GameController gameController;
+
+    private final ProgrammingStrategy strategy;
+
+    private Consumer<Player> winListener;
+
+    private StepListener stepListener;
+
+    private int rounds;
+
+    /**
+     * Creates a headless game on the given board. The players must be added
+     * to the board (and placed on it) already.
+     *
+     * @param board the board of the game
+     * @param strategy the strategy controlling all players
+     */
+    public HeadlessGame(@NotNull Board board, @NotNull ProgrammingStrategy strategy) {
+        this(board, new GameController(board), strategy);
+    }
+
+    /**
+     * Creates a headless game on the given board, which deals the cards with
+     * the given seed; with the same seed, board and strategy, the game is
+     * played exactly the same way again.
+     *
+     * @param board the board of the game
+     * @param strategy the strategy controlling all players
+     * @param seed the seed for dealing the cards
+     */
+    public HeadlessGame(@NotNull Board board, @NotNull ProgrammingStrategy strategy, long seed) {
+        this(board, new GameController(board, seed), strategy);
+    }
+
+    private HeadlessGame(@NotNull Board board, @NotNull GameController gameController, @NotNull ProgrammingStrategy strategy) {
+        this.board = board;
+        this.gameController = gameController;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Creates a headless game on the given board with the given number of
+     * players; the players are placed on the board the same way as in the
+     * application.
+     *
+     * @param board the board of the game
+     * @param noOfPlayers the number of players
+     * @param strategy the strategy controlling all players
+     * @return the new game
+     */
+    public static HeadlessGame create(@NotNull Board board, int noOfPlayers, @NotNull ProgrammingStrategy strategy) {
+        addPlayers(board, noOfPlayers);
+        return new HeadlessGame(board, strategy);
+    }
+
+    /**
+     * Creates a headless game like {@link #create(Board, int, ProgrammingStrategy)},
+     * which deals the cards with the given seed.
+     *
+     * @param board the board of the game
+     * @param noOfPlayers the number of players
+     * @param strategy the strategy controlling all players
+     * @param seed the seed for dealing the cards
+     * @return the new game
+     */
+    public static HeadlessGame create(@NotNull Board board, int noOfPlayers, @NotNull ProgrammingStrategy strategy, long seed) {
+        addPlayers(board, noOfPlayers);
+        return new HeadlessGame(board, strategy, seed);
+    }
+
+    private static void addPlayers(Board board, int noOfPlayers) {
+        for (int i = 0; i < noOfPlayers; i++) {
+            Player player = new Player(board, null, "Player " + (i + 1));
+            player.setPlayerId(i);
+            board.addPlayer(player);
+            player.setSpace(board.getSpace(i % board.width, i));
+        }
+    }
+
+    /**
+     * Sets the listener, which is informed when a player has won the game.
+     *
+     * @param winListener the listener (or null)
+     */
+    public void setWinListener(Consumer<Player> winListener) {
+        this.winListener = winListener;
+    }
+
+    /**
+     * Sets the listener, which is informed after every step of the
+     * activation phase.
+     *
+     * @param stepListener the listener (or null)
+     */
+    public void setStepListener(StepListener stepListener) {
+        this.stepListener = stepListener;
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public GameController getGameController() {
+        return gameController;
+    }
+
+    /**
+     * Returns the number of rounds played so far.
+     *
+     * @return the number of rounds
+     */
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Plays one round of the game: the programming phase, in which the
+     * strategy programs the registers of all players, and the activation
+     * phase, in which all registers are executed.
+     *
+     * @return true if the game can be continued; false if it is finished
+     */
+    public boolean playRound() {
+        if (gameController.isGameOver()) {
+            return false;
+        }
+        if (board.getPhase() != Phase.PROGRAMMING) {
+            gameController.startProgrammingPhase();
+        }
+        for (Player player : board.getPlayers()) {
+            strategy.program(gameController, player);
+        }
+        gameController.finishProgrammingPhase();
+        // The registers are executed step by step, so that the listener
+        // knows exactly in which register something happened.
+        while (true) {
+            int register = board.getStep();
+            if (board.getPhase() == Phase.ACTIVATION) {
+                gameController.executeStep();
+            } else if (board.getPhase() == Phase.PLAYER_INTERACTION) {
+                Player player = board.getCurrentPlayer();
+                CommandCard card = player.getProgramField(register).getCard();
+                Command option = strategy.chooseOption(player, card.command.getOptions());
+                gameController.executeCommandOptionAndContinue(option);
+            } else {
+                break;
+            }
+            if (stepListener != null) {
+                stepListener.stepExecuted(rounds + 1, register);
+            }
+        }
+        rounds++;
+
+        if (gameController.isGameOver()) {
+            if (winListener != null) {
+                winListener.accept(board.getWinner());
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Plays rounds until one of the players has won, or until the maximum
+     * number of rounds is reached.
+     *
+     * @param maxRounds the maximum number of rounds
+     * @return the winner of the game; null if nobody has won
+     */
+    public Player run(int maxRounds) {
+        while (rounds < maxRounds && playRound()) {
+            // all the work is done in playRound()
+        }
+        return board.getWinner();
+    }
+
+}
@@ -0,0 +1,50 @@
+package dk.dtu.compute.se.pisd.roborally.simulation;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * A strategy for a robot which is not controlled by a human player. The
+ * strategy programs the registers of the player in the programming phase
+ * and chooses the option of interactive cards in the activation phase.
+ *
+ */
+public interface ProgrammingStrategy {
+
+    /**
+     * A simple strategy, which puts the first cards of the player's hand into
+     * the registers (in order) and always chooses the first option of an
+     * interactive card.
+     */
+    ProgrammingStrategy IN_ORDER = (gameController, player) -> {
+        for (int i = 0; i < Player.NO_REGISTERS; i++) {
+            gameController.moveCards(player.getCardField(i), player.getProgramField(i));
+        }
+    };
+
+    /**
+     * Programs the registers of the given player. The cards should be moved
+     * from the player's hand to the registers via the game controller.
+     *
+     * @param gameController the game controller of the game
+     * @param player the player whose registers should be programmed
+     */
+    void program(@NotNull GameController gameController, @NotNull Player player);
+
+    /**
+     * Chooses one of the options of an interactive card which is executed
+     * for the given player.
+     *
+     * @param player the player for whom the card is executed
+     * @param options the options of the card (not empty)
+     * @return the chosen option
+     */
+    default Command chooseOption(@NotNull Player player, @NotNull List<Command> options) {
+        return options.get(0);
+    }
+
+}
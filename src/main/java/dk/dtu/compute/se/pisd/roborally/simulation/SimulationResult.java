@@ -0,0 +1,78 @@
+package dk.dtu.compute.se.pisd.roborally.simulation;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of a single simulated game: the winner, the number of rounds
+ * it took and the timeline of the checkpoints collected by the players.
+ *
+ */
+public class SimulationResult {
+
+    /**
+     * A checkpoint collected by a player in the given round and register.
+     */
+    public static class CheckpointReached {
+
+        public final int round;
+
+        public final int register;
+
+        public final int player;
+
+        public final int checkpoint;
+
+        public CheckpointReached(int round, int register, int player, int checkpoint) {
+            this.round = round;
+            this.register = register;
+            this.player = player;
+            this.checkpoint = checkpoint;
+        }
+
+        @Override
+        public String toString() {
+            return "round " + round + ", register " + register + ": player " + player + " -> checkpoint " + checkpoint;
+        }
+    }
+
+    public final GameSetup setup;
+
+    /**
+     * The seed, with which the cards of the game were dealt.
+     */
+    public final long seed;
+
+    /**
+     * The number of the winning player on the board; -1 if no player won
+     * within the maximum number of rounds.
+     */
+    public final int winner;
+
+    public final int rounds;
+
+    public final List<CheckpointReached> timeline;
+
+    public SimulationResult(GameSetup setup, long seed, int winner, int rounds, List<CheckpointReached> timeline) {
+        this.setup = setup;
+        this.seed = seed;
+        this.winner = winner;
+        this.rounds = rounds;
+        this.timeline = Collections.unmodifiableList(timeline);
+    }
+
+    /**
+     * Returns whether a player has won this game.
+     *
+     * @return true if the game has a winner
+     */
+    public boolean hasWinner() {
+        return winner >= 0;
+    }
+
+    @Override
+    public String toString() {
+        return setup + ": " + (hasWinner() ? "player " + winner + " won" : "no winner") + " after " + rounds + " rounds";
+    }
+
+}
@@ -0,0 +1,123 @@
+package dk.dtu.compute.se.pisd.roborally.simulation;
+
+import dk.dtu.compute.se.pisd.roborally.fileaccess.LoadBoard;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Runs many independent headless games concurrently on a work-stealing
+ * {@link ForkJoinPool}. Every game has its own {@link Board} and
+ * {@link dk.dtu.compute.se.pisd.roborally.controller.GameController}, so
+ * the games do not share any state.
+ *
+ */
+public class SimulationRunner implements AutoCloseable {
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a runner using all available processors.
+     */
+    public SimulationRunner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a runner with the given number of worker threads.
+     *
+     * @param parallelism the number of worker threads
+     */
+    public SimulationRunner(int parallelism) {
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Runs the given games concurrently and waits until all of them are done.
+     *
+     * @param setups the setups of the games
+     * @return the results of the games, in the same order as the setups
+     */
+    public List<SimulationResult> run(@NotNull List<GameSetup> setups) {
+        List<ForkJoinTask<SimulationResult>> tasks = new ArrayList<>(setups.size());
+        for (GameSetup setup : setups) {
+            tasks.add(pool.submit(() -> runGame(setup)));
+        }
+        List<SimulationResult> results = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<SimulationResult> task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+
+    /**
+     * Runs a tournament: the given number of games for every combination of
+     * the given boards and numbers of players.
+     *
+     * @param boardNames the names of the boards
+     * @param playerNumbers the numbers of players
+     * @param gamesPerSetup the number of games for each combination
+     * @return the results of all games
+     */
+    public List<SimulationResult> tournament(@NotNull List<String> boardNames, @NotNull List<Integer> playerNumbers, int gamesPerSetup) {
+        List<GameSetup> setups = new ArrayList<>();
+        for (String boardName : boardNames) {
+            for (int noOfPlayers : playerNumbers) {
+                GameSetup setup = new GameSetup(boardName, noOfPlayers);
+                for (int i = 0; i < gamesPerSetup; i++) {
+                    setups.add(setup);
+                }
+            }
+        }
+        return run(setups);
+    }
+
+    /**
+     * Runs a single game in the calling thread.
+     *
+     * @param setup the setup of the game
+     * @return the result of the game
+     */
+    public static SimulationResult runGame(@NotNull GameSetup setup) {
+        Board board = LoadBoard.loadBoard(setup.boardName);
+        HeadlessGame game = setup.seed != null ?
+                HeadlessGame.create(board, setup.noOfPlayers, setup.strategy, setup.seed) :
+                HeadlessGame.create(board, setup.noOfPlayers, setup.strategy);
+
+        List<SimulationResult.CheckpointReached> timeline = new ArrayList<>();
+        int[] collected = new int[setup.noOfPlayers];
+        // The players are checked after every step (and not via observers),
+        // since notifications are batched and might arrive only after the
+        // register of the game was advanced already.
+        game.setStepListener((round, register) -> {
+            for (int number = 0; number < collected.length; number++) {
+                Player player = board.getPlayer(number);
+                while (collected[number] < player.getCollectedTokens()) {
+                    // checkpoints are collected in the order of their ids
+                    timeline.add(new SimulationResult.CheckpointReached(
+                            round, register, number, collected[number]));
+                    collected[number]++;
+                }
+            }
+        });
+
+        Player winner = game.run(setup.maxRounds);
+        int winnerNumber = winner != null ? board.getPlayerNumber(winner) : -1;
+        return new SimulationResult(setup, game.getGameController().getCardDealer().getSeed(),
+                winnerNumber, game.getRounds(), timeline);
+    }
+
+    /**
+     * Shuts down the worker threads of this runner.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+}
@@ -0,0 +1,75 @@
+package dk.dtu.compute.se.pisd.roborally.simulation;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Aggregated statistics over a number of simulated games.
+ *
+ */
+public class SimulationSummary {
+
+    public final int games;
+
+    public final int gamesWithWinner;
+
+    /**
+     * The number of wins for each player number (seat) on the board.
+     */
+    public final int[] winsPerPlayer;
+
+    public final long totalRounds;
+
+    private SimulationSummary(int games, int gamesWithWinner, int[] winsPerPlayer, long totalRounds) {
+        this.games = games;
+        this.gamesWithWinner = gamesWithWinner;
+        this.winsPerPlayer = winsPerPlayer;
+        this.totalRounds = totalRounds;
+    }
+
+    /**
+     * Computes the summary of the given results.
+     *
+     * @param results the results of the simulated games
+     * @return the summary
+     */
+    public static SimulationSummary of(@NotNull List<SimulationResult> results) {
+        int maxPlayers = 0;
+        for (SimulationResult result : results) {
+            maxPlayers = Math.max(maxPlayers, result.setup.noOfPlayers);
+        }
+        int[] wins = new int[maxPlayers];
+        int withWinner = 0;
+        long rounds = 0;
+        for (SimulationResult result : results) {
+            if (result.hasWinner()) {
+                wins[result.winner]++;
+                withWinner++;
+            }
+            rounds += result.rounds;
+        }
+        return new SimulationSummary(results.size(), withWinner, wins, rounds);
+    }
+
+    /**
+     * Returns the average number of rounds of a game.
+     *
+     * @return the average number of rounds
+     */
+    public double getAverageRounds() {
+        return games == 0 ? 0.0 : (double) totalRounds / games;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(games).append(" games, ").append(gamesWithWinner).append(" with a winner, ")
+                .append(String.format("%.2f", getAverageRounds())).append(" rounds on average; wins per player:");
+        for (int i = 0; i < winsPerPlayer.length; i++) {
+            builder.append(' ').append(i).append('=').append(winsPerPlayer[i]);
+        }
+        return builder.toString();
+    }
+
+}
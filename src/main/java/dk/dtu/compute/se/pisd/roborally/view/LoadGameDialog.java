@@ -0,0 +1,176 @@
+package dk.dtu.compute.se.pisd.roborally.view;
+
+import dk.dtu.compute.se.pisd.roborally.dal.GameFilter;
+import dk.dtu.compute.se.pisd.roborally.dal.GameInDB;
+import dk.dtu.compute.se.pisd.roborally.dal.IRepository;
+import javafx.concurrent.Task;
+import javafx.geometry.Insets;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.VBox;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * A dialog for selecting a saved game. The games can be filtered by their
+ * board, number of players and creation date; they are shown newest first
+ * and fetched from the repository one page at a time, when the user asks
+ * for more games. The repository is accessed by the given executor, so
+ * that the dialog never waits for it.
+ *
+ */
+public class LoadGameDialog extends Dialog<GameInDB> {
+
+    private static final int PAGE_SIZE = 50;
+
+    private final IRepository repository;
+
+    private final Executor executor;
+
+    private final ComboBox<String> boardChoice = new ComboBox<>();
+    private final ComboBox<Integer> playersChoice = new ComboBox<>();
+    private final DatePicker fromPicker = new DatePicker();
+    private final DatePicker toPicker = new DatePicker();
+
+    private final ListView<GameInDB> gameList = new ListView<>();
+    private final Button moreButton = new Button("More games");
+
+    private Iterator<GameInDB> games;
+
+    private Page loading;
+
+    /**
+     * Creates a dialog showing the games of the given repository.
+     *
+     * @param repository the repository
+     * @param boards the names of the boards, which can be selected for filtering
+     * @param playerNumbers the numbers of players, which can be selected for filtering
+     * @param executor the executor, which accesses the repository
+     */
+    public LoadGameDialog(@NotNull IRepository repository, List<String> boards, List<Integer> playerNumbers,
+                          @NotNull Executor executor) {
+        this.repository = repository;
+        this.executor = executor;
+        setTitle("Saved games");
+        setHeaderText("Select saved game");
+
+        boardChoice.getItems().add(null);
+        boardChoice.getItems().addAll(boards);
+        playersChoice.getItems().add(null);
+        playersChoice.getItems().addAll(playerNumbers);
+        boardChoice.setOnAction(e -> refresh());
+        playersChoice.setOnAction(e -> refresh());
+        fromPicker.setOnAction(e -> refresh());
+        toPicker.setOnAction(e -> refresh());
+        moreButton.setOnAction(e -> more());
+
+        GridPane filters = new GridPane();
+        filters.setHgap(10);
+        filters.setVgap(5);
+        filters.addRow(0, new Label("Board:"), boardChoice, new Label("Players:"), playersChoice);
+        filters.addRow(1, new Label("From:"), fromPicker, new Label("To:"), toPicker);
+
+        VBox content = new VBox(10, filters, gameList, moreButton);
+        content.setPadding(new Insets(10));
+        getDialogPane().setContent(content);
+        getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        getDialogPane().lookupButton(ButtonType.OK).disableProperty().bind(
+                gameList.getSelectionModel().selectedItemProperty().isNull());
+
+        setResultConverter(button -> button == ButtonType.OK ?
+                gameList.getSelectionModel().getSelectedItem() : null);
+
+        refresh();
+    }
+
+    private void refresh() {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate from = fromPicker.getValue();
+        LocalDate to = toPicker.getValue();
+        GameFilter filter = new GameFilter(
+                boardChoice.getValue(),
+                from != null ? from.atStartOfDay(zone).toInstant() : null,
+                // the to date is inclusive in the dialog
+                to != null ? to.plusDays(1).atStartOfDay(zone).toInstant() : null,
+                playersChoice.getValue());
+        games = null;
+        gameList.getItems().clear();
+        load(new Page(filter, null));
+    }
+
+    private void more() {
+        if (games != null) {
+            load(new Page(null, games));
+        }
+    }
+
+    private void load(Page page) {
+        if (loading != null) {
+            loading.cancel();
+        }
+        loading = page;
+        moreButton.setDisable(true);
+        page.setOnSucceeded(e -> {
+            if (loading == page) {
+                loading = null;
+                games = page.games;
+                gameList.getItems().addAll(page.getValue());
+                moreButton.setDisable(!page.hasMore);
+            }
+        });
+        page.setOnFailed(e -> {
+            if (loading == page) {
+                loading = null;
+                setHeaderText("The saved games could not be read: " + page.getException().getMessage());
+            }
+        });
+        executor.execute(page);
+    }
+
+    /**
+     * Fetches the next page of games in the background; the games are
+     * either those matching a new filter or the further games of an
+     * iterator, which was created by an earlier page.
+     */
+    private class Page extends Task<List<GameInDB>> {
+
+        private final GameFilter filter;
+
+        private Iterator<GameInDB> games;
+
+        private boolean hasMore;
+
+        Page(GameFilter filter, Iterator<GameInDB> games) {
+            this.filter = filter;
+            this.games = games;
+        }
+
+        @Override
+        protected List<GameInDB> call() {
+            if (games == null) {
+                games = repository.iterateGames(filter, PAGE_SIZE);
+            }
+            List<GameInDB> page = new ArrayList<>(PAGE_SIZE);
+            for (int i = 0; i < PAGE_SIZE && games.hasNext(); i++) {
+                page.add(games.next());
+            }
+            hasMore = games.hasNext();
+            return page;
+        }
+
+    }
+
+}
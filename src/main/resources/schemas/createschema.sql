@@ -7,12 +7,16 @@ CREATE TABLE IF NOT EXISTS Game (
 
   name varchar(255),
   boardName varchar(255),
+  created timestamp DEFAULT CURRENT_TIMESTAMP,
+  noOfPlayers tinyint,
 
   phase tinyint,
   step tinyint,
   currentPlayer tinyint NULL,
 
   PRIMARY KEY (gameID),
+  INDEX (boardName, gameID),
+  INDEX (created),
   FOREIGN KEY (gameID, currentPlayer) REFERENCES Player(gameID, playerID)
 );;
 
@@ -0,0 +1,119 @@
+package dk.dtu.compute.se.pisd.designpatterns.observer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SubjectTest {
+
+    private static class Counter extends Subject {
+
+        private int value;
+
+        void increment() {
+            value++;
+            notifyChange();
+        }
+
+    }
+
+    private static class CountingObserver implements Observer {
+
+        private int updates;
+
+        @Override
+        public void update(Subject subject) {
+            updates++;
+        }
+
+    }
+
+    private Counter counter;
+
+    private CountingObserver observer;
+
+    @BeforeEach
+    void setUp() {
+        counter = new Counter();
+        observer = new CountingObserver();
+        counter.attach(observer);
+    }
+
+    @Test
+    void notifiesImmediatelyOutsideBatch() {
+        counter.increment();
+        counter.increment();
+
+        Assertions.assertEquals(2, observer.updates, "Observer should be notified of every change!");
+    }
+
+    @Test
+    void batchNotifiesOnce() {
+        Counter other = new Counter();
+        other.attach(observer);
+
+        Subject.beginBatch();
+        try {
+            counter.increment();
+            counter.increment();
+            Subject.beginBatch();
+            other.increment();
+            Subject.endBatch();
+            Assertions.assertEquals(0, observer.updates, "Observer should not be notified before the batch ends!");
+        } finally {
+            Subject.endBatch();
+        }
+
+        Assertions.assertEquals(2, observer.updates, "Observer should be notified once for each changed subject!");
+        Assertions.assertEquals(2, counter.value);
+
+        counter.increment();
+        Assertions.assertEquals(3, observer.updates, "Observer should be notified immediately after the batch!");
+    }
+
+    @Test
+    void attachAndDetach() {
+        CountingObserver other = new CountingObserver();
+        counter.attach(observer);
+        counter.attach(other);
+        counter.increment();
+
+        Assertions.assertEquals(1, observer.updates, "Observer attached twice should be notified once!");
+        Assertions.assertEquals(1, other.updates);
+
+        counter.detach(observer);
+        counter.increment();
+
+        Assertions.assertEquals(1, observer.updates, "Detached observer should not be notified!");
+        Assertions.assertEquals(2, other.updates);
+    }
+
+    @Test
+    void batchesOfDifferentThreads() throws InterruptedException {
+        Subject.beginBatch();
+        try {
+            counter.increment();
+            Thread other = new Thread(() -> {
+                Subject.beginBatch();
+                try {
+                    counter.increment();
+                } finally {
+                    Subject.endBatch();
+                }
+            });
+            other.start();
+            other.join();
+            Assertions.assertEquals(1, observer.updates, "Batch of the other thread should notify the observer!");
+        } finally {
+            Subject.endBatch();
+        }
+
+        Assertions.assertEquals(2, observer.updates, "Batch of this thread should notify the observer, too!");
+    }
+
+    @Test
+    void unmatchedEndBatch() {
+        Assertions.assertThrows(IllegalStateException.class, Subject::endBatch);
+    }
+
+}
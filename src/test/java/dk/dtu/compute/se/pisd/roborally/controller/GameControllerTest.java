@@ -6,6 +6,7 @@ import dk.dtu.compute.se.pisd.roborally.model.Player;
 import dk.dtu.compute.se.pisd.roborally.model.Space;
 import dk.dtu.compute.se.pisd.roborally.model.Phase;
 import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.CommandCard;
 import dk.dtu.compute.se.pisd.roborally.model.CommandCardField;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -120,4 +121,138 @@ class GameControllerTest {
         gameController.executeCommandOptionAndContinue(option);
         // Add assertions to verify that command options are executed correctly
     }
-}
\ No newline at end of file
+
+    @Test
+    void declareWinner() {
+        Board board = gameController.board;
+        Player winner = board.getPlayer(2);
+        gameController.finishProgrammingPhase();
+
+        gameController.declareWinner(winner);
+
+        Assertions.assertEquals(winner, board.getWinner(), "Player " + winner.getName() + " should have won!");
+        Assertions.assertEquals(Phase.FINISHED, board.getPhase(), "Phase should be set to FINISHED");
+        Assertions.assertTrue(gameController.isGameOver(), "Game should be over");
+
+        gameController.executePrograms();
+        Assertions.assertEquals(Phase.FINISHED, board.getPhase(), "Phase should still be FINISHED");
+    }
+
+    @Test
+    void boardElementsAreActivatedInStages() {
+        Board board = new Board(TEST_WIDTH, TEST_HEIGHT);
+        ConveyorBelt belt = new ConveyorBelt();
+        belt.setHeading(Heading.EAST);
+        board.getSpace(0, 6).addAction(belt);
+        GearsFieldAction gears = new GearsFieldAction();
+        board.getSpace(1, 6).addAction(gears);
+        CheckPointFieldAction checkpoint = new CheckPointFieldAction();
+        checkpoint.setCheckPointId(0);
+        board.getSpace(1, 6).addAction(checkpoint);
+        GameController controller = new GameController(board);
+
+        Player player = new Player(board, null, "Player 0");
+        board.addPlayer(player);
+        player.setSpace(board.getSpace(0, 6));
+        player.setHeading(Heading.NORTH);
+        Player other = new Player(board, null, "Player 1");
+        board.addPlayer(other);
+        other.setSpace(board.getSpace(5, 5));
+
+        controller.finishProgrammingPhase();
+        controller.executePrograms();
+
+        Assertions.assertEquals(board.getSpace(1, 6), player.getSpace(), "Belt should have moved the player to (1,6)!");
+        Assertions.assertEquals(Heading.EAST, player.getHeading(), "Gear should have turned the player once!");
+        Assertions.assertEquals(player, board.getWinner(), "Player should have collected the checkpoint and won!");
+        Assertions.assertEquals(board.getSpace(5, 5), other.getSpace());
+    }
+
+    @Test
+    void moveForwardPushesChain() {
+        Board board = new Board(TEST_WIDTH, TEST_HEIGHT);
+        GameController controller = new GameController(board);
+        Player[] players = new Player[3];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new Player(board, null, "Player " + i);
+            board.addPlayer(players[i]);
+            players[i].setSpace(board.getSpace(i + 1, 3));
+            players[i].setHeading(Heading.values()[i]);
+        }
+        players[0].setHeading(Heading.EAST);
+        Heading pushed = players[1].getHeading();
+
+        controller.moveForward(players[0]);
+
+        for (int i = 0; i < players.length; i++) {
+            Assertions.assertEquals(board.getSpace(i + 2, 3), players[i].getSpace(), "Player " + i + " should have moved EAST!");
+        }
+        Assertions.assertEquals(pushed, players[1].getHeading(), "Pushed player should keep its heading!");
+
+        board.getSpace(4, 3).addWall(Heading.EAST);
+        controller.moveForward(players[0]);
+        for (int i = 0; i < players.length; i++) {
+            Assertions.assertEquals(board.getSpace(i + 2, 3), players[i].getSpace(), "Player " + i + " should be blocked by the wall!");
+        }
+    }
+
+    @Test
+    void commandHandlerForInteractiveCommand() {
+        Board board = gameController.board;
+        gameController.setCommandHandler(Command.OPTION_LEFT_RIGHT, GameController::turnLeft);
+        Player current = board.getPlayer(0);
+        Heading heading = current.getHeading();
+        current.getProgramField(0).setCard(CommandCard.of(Command.OPTION_LEFT_RIGHT));
+
+        gameController.finishProgrammingPhase();
+        gameController.executeStep();
+
+        Assertions.assertEquals(Phase.ACTIVATION, board.getPhase(), "Handler should be used instead of asking the player!");
+        Assertions.assertEquals(heading.prev(), current.getHeading(), "Player should have turned left!");
+    }
+
+    @Test
+    void sameSeedDealsSameCards() {
+        Player[] players = new Player[2];
+        for (int i = 0; i < players.length; i++) {
+            Board board = new Board(TEST_WIDTH, TEST_HEIGHT);
+            GameController controller = new GameController(board, 42);
+            players[i] = new Player(board, null, "Player 0");
+            board.addPlayer(players[i]);
+            for (Command command : Command.values()) {
+                players[i].getCardDeck().push(CommandCard.of(command));
+            }
+            controller.getCardDealer().shuffle(players[i]);
+            controller.startProgrammingPhase();
+        }
+
+        for (int j = 0; j < Player.NO_CARDS; j++) {
+            Assertions.assertEquals(players[0].getCardField(j).getCard().command, players[1].getCardField(j).getCard().command,
+                    "Card " + j + " should be the same with the same seed!");
+        }
+    }
+
+    @Test
+    void dealingRecyclesDiscardPile() {
+        Board board = gameController.board;
+        Player player = board.getPlayer(0);
+        int cards = CardDealer.COPIES_PER_COMMAND * Command.values().length;
+
+        for (int round = 0; round < 5; round++) {
+            gameController.startProgrammingPhase();
+            for (int i = 0; i < Player.NO_REGISTERS; i++) {
+                gameController.moveCards(player.getCardField(i), player.getProgramField(i));
+            }
+            int inFields = 0;
+            for (int i = 0; i < Player.NO_CARDS; i++) {
+                inFields += player.getCardField(i).getCard() != null ? 1 : 0;
+            }
+            for (int i = 0; i < Player.NO_REGISTERS; i++) {
+                inFields += player.getProgramField(i).getCard() != null ? 1 : 0;
+            }
+            Assertions.assertEquals(Player.NO_CARDS, inFields, "Player should hold a full hand in round " + round + "!");
+            Assertions.assertEquals(cards, inFields + player.getCardDeck().size() + player.getDiscardPile().size(),
+                    "No cards should be lost or created in round " + round + "!");
+        }
+    }
+}
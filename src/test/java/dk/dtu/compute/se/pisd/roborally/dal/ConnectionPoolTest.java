@@ -0,0 +1,107 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class ConnectionPoolTest {
+
+    private static int databases;
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        // an embedded in-memory database, which lives as long as the VM
+        pool = new ConnectionPool("jdbc:h2:mem:pool" + (++databases) + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "sa", "", 1);
+        try (ConnectionPool.PooledConnection connection = pool.acquire();
+             Statement statement = connection.connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE Game (gameID int NOT NULL AUTO_INCREMENT, name varchar(255), " +
+                    "PRIMARY KEY (gameID))");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void nestedAcquisition() throws SQLException {
+        try (ConnectionPool.PooledConnection outer = pool.acquire()) {
+            try (ConnectionPool.PooledConnection inner = pool.acquire()) {
+                Assertions.assertSame(outer, inner, "Thread should get its connection again!");
+            }
+            Assertions.assertSame(outer, pool.current(), "Connection should stay bound until closed as often as acquired!");
+        }
+        Assertions.assertThrows(IllegalStateException.class, pool::current);
+    }
+
+    @Test
+    void poolSizeIsBounded() throws Exception {
+        CountDownLatch waiting = new CountDownLatch(1);
+        CompletableFuture<ConnectionPool.PooledConnection> other;
+        ConnectionPool.PooledConnection first = pool.acquire();
+        try {
+            other = CompletableFuture.supplyAsync(() -> {
+                waiting.countDown();
+                try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+                    return connection;
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            Assertions.assertTrue(waiting.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            Assertions.assertFalse(other.isDone(), "Second thread should wait for the only connection!");
+        } finally {
+            first.close();
+        }
+        Assertions.assertSame(first, other.get(5, TimeUnit.SECONDS),
+                "Second thread should get the connection returned to the pool!");
+    }
+
+    @Test
+    void unfinishedTransactionIsRolledBack() throws SQLException {
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            connection.connection.setAutoCommit(false);
+            connection.prepare("INSERT INTO Game(name) VALUES (?)").setString(1, "Lost game");
+            connection.prepare("INSERT INTO Game(name) VALUES (?)").executeUpdate();
+        }
+
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            Assertions.assertTrue(connection.connection.getAutoCommit(), "Returned connection should auto commit again!");
+            try (ResultSet rs = connection.prepare("SELECT COUNT(*) FROM Game").executeQuery()) {
+                rs.next();
+                Assertions.assertEquals(0, rs.getInt(1), "Unfinished transaction should be rolled back!");
+            }
+        }
+    }
+
+    @Test
+    void statementsAreCached() throws SQLException {
+        PreparedStatement statement;
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            statement = connection.prepare("SELECT name FROM Game WHERE gameID = ?");
+            Assertions.assertSame(statement, connection.prepare("SELECT name FROM Game WHERE gameID = ?"));
+            Assertions.assertNotSame(statement, connection.prepare("SELECT gameID FROM Game"));
+        }
+
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            Assertions.assertSame(statement, connection.prepare("SELECT name FROM Game WHERE gameID = ?"),
+                    "Statement should be prepared once per connection only!");
+            Assertions.assertFalse(statement.isClosed());
+        }
+    }
+
+}
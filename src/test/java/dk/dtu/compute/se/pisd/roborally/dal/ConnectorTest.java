@@ -0,0 +1,65 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+class ConnectorTest {
+
+    // an embedded in-memory database in MySQL mode with the schema pisu
+    private static final String URL = "jdbc:h2:mem:migration;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;" +
+            "INIT=CREATE SCHEMA IF NOT EXISTS pisu\\;SET SCHEMA pisu";
+
+    @Test
+    void existingGameTableIsUpdated() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            // the tables as created by an earlier version of the schema
+            statement.executeUpdate("CREATE TABLE Game (gameID int NOT NULL UNIQUE AUTO_INCREMENT, " +
+                    "name varchar(255), boardName varchar(255), phase tinyint, step tinyint, " +
+                    "currentPlayer tinyint NULL, PRIMARY KEY (gameID))");
+            statement.executeUpdate("CREATE TABLE Player (gameID int NOT NULL, playerID tinyint NOT NULL, " +
+                    "name varchar(255), PRIMARY KEY (gameID, playerID))");
+            statement.executeUpdate("INSERT INTO Game(name, boardName) VALUES ('Old game', 'defaultboard')");
+            statement.executeUpdate("INSERT INTO Player(gameID, playerID, name) VALUES (1, 0, 'A'), (1, 1, 'B')");
+        }
+
+        new Connector(URL, "sa", "", 1).close();
+        int indexes = countIndexes();
+        // updating the schema again must not change anything
+        new Connector(URL, "sa", "", 1).close();
+        Assertions.assertEquals(indexes, countIndexes(), "Indexes should be created only once!");
+
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("SELECT created, noOfPlayers FROM Game WHERE gameID = 1")) {
+                Assertions.assertTrue(rs.next());
+                Assertions.assertNull(rs.getTimestamp(1), "Creation time of an existing game is not known!");
+                Assertions.assertEquals(2, rs.getInt(2), "Players of an existing game should be counted!");
+            }
+            statement.executeUpdate("INSERT INTO Game(name, boardName, noOfPlayers) VALUES ('New game', 'defaultboard', 3)");
+            try (ResultSet rs = statement.executeQuery("SELECT created FROM Game WHERE gameID = 2")) {
+                Assertions.assertTrue(rs.next());
+                Assertions.assertNotNull(rs.getTimestamp(1), "New game should get its creation time!");
+            }
+        }
+    }
+
+    private static int countIndexes() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             ResultSet rs = connection.getMetaData().getIndexInfo(null, "pisu", "game", false, false)) {
+            int columns = 0;
+            while (rs.next()) {
+                columns++;
+            }
+            Assertions.assertTrue(columns >= 4, "Game should have indexes on (boardName, gameID) and created!");
+            return columns;
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.LoadBoard;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.Phase;
+import dk.dtu.compute.se.pisd.roborally.simulation.HeadlessGame;
+import dk.dtu.compute.se.pisd.roborally.simulation.ProgrammingStrategy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+class GameReplayTest {
+
+    @Test
+    void seekRestoresRecordedGame() throws Exception {
+        Board board = LoadBoard.loadBoard("defaultboard");
+        HeadlessGame game = HeadlessGame.create(board, 3, ProgrammingStrategy.IN_ORDER, 7);
+        Path file = Files.createTempDirectory("roborally").resolve("game.events");
+        List<ByteBuffer> rounds = new ArrayList<>();
+        try (GameEventLog log = new GameEventLog(file, game.getGameController(), 3)) {
+            game.setStepListener((round, register) -> {
+                if (board.getPhase() == Phase.PROGRAMMING) {
+                    rounds.add(GameSnapshotCodec.encode(board, null, null));
+                }
+            });
+            for (int i = 0; i < 8 && game.playRound(); i++) {
+                // the rounds are recorded by the log
+            }
+        }
+
+        GameReplay replay = new GameReplay(file);
+        Assertions.assertEquals(game.getGameController().getCardDealer().getSeed(), replay.getSeed());
+        Assertions.assertEquals(rounds.size() + 1, replay.getRounds());
+        for (int i = 0; i < rounds.size(); i++) {
+            // the state after round i + 1 is the state at the beginning of round i + 2
+            Assertions.assertEquals(rounds.get(i), GameSnapshotCodec.encode(replay.seek(i + 2), null, null),
+                    "Replayed round " + (i + 2) + " should be the same as the recorded one!");
+        }
+        Assertions.assertEquals(Phase.ACTIVATION, replay.seek(2, 3).getPhase());
+        Assertions.assertEquals(3, replay.seek(2, 3).getStep());
+    }
+
+    @Test
+    void optionsChosenByHandlerAreRejected() throws Exception {
+        Board board = LoadBoard.loadBoard("defaultboard");
+        HeadlessGame game = HeadlessGame.create(board, 3, ProgrammingStrategy.IN_ORDER, 7);
+        game.getGameController().setCommandHandler(Command.OPTION_LEFT_RIGHT, GameController::turnLeft);
+        Path file = Files.createTempDirectory("roborally").resolve("game.events");
+        try (GameEventLog log = new GameEventLog(file, game.getGameController(), 3)) {
+            for (int i = 0; i < 8 && game.playRound(); i++) {
+                // the rounds are recorded by the log
+            }
+        }
+
+        IllegalArgumentException failure = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new GameReplay(file));
+        Assertions.assertTrue(failure.getMessage().contains("command handler"),
+                "Log should be rejected because of the handler!");
+    }
+
+    @Test
+    void failureIsReported() throws Exception {
+        // writing to /dev/full always fails, since the device is full
+        Path full = Path.of("/dev/full");
+        Assumptions.assumeTrue(Files.isWritable(full));
+        Board board = LoadBoard.loadBoard("defaultboard");
+        HeadlessGame game = HeadlessGame.create(board, 2, ProgrammingStrategy.IN_ORDER, 7);
+        GameEventLog log = new GameEventLog(full, game.getGameController(), 1);
+        for (int i = 0; i < 3 && game.playRound(); i++) {
+            // the failed log must not stop the game
+        }
+
+        IOException failure = Assertions.assertThrows(IOException.class, log::flush);
+        Assertions.assertNotNull(failure.getCause(), "First failure while recording should be reported!");
+        Assertions.assertThrows(IOException.class, log::close);
+    }
+
+}
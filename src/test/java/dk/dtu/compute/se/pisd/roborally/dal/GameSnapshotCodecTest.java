@@ -0,0 +1,160 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.LoadBoard;
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+class GameSnapshotCodecTest {
+
+    private Board board;
+
+    @BeforeEach
+    void setUp() {
+        board = LoadBoard.loadBoard("defaultboard");
+        GameController gameController = new GameController(board);
+        for (int i = 0; i < 3; i++) {
+            Player player = new Player(board, "red", "Player " + (i + 1));
+            player.setPlayerId(i);
+            board.addPlayer(player);
+            player.setSpace(board.getSpace(i, i));
+        }
+        gameController.startProgrammingPhase();
+        Player player = board.getPlayer(1);
+        player.setHeading(Heading.WEST);
+        player.getProgramField(2).setCard(CommandCard.of(Command.FAST_FORWARD));
+        player.getCardField(0).setVisible(false);
+        player.getCardDeck().push(CommandCard.of(Command.LEFT));
+        player.getCardDeck().push(CommandCard.of(Command.OPTION_LEFT_RIGHT));
+        player.getDiscardPile().push(CommandCard.of(Command.RIGHT));
+        player.collectedCheckpoints(0);
+        board.setCurrentPlayer(player);
+        board.setStep(3);
+    }
+
+    @Test
+    void roundTrip() {
+        ByteBuffer snapshot = GameSnapshotCodec.encode(board, "Test game", Instant.now());
+        Assertions.assertEquals(GameSnapshotCodec.encodedSize(board, "Test game"), snapshot.remaining());
+
+        Board copy = GameSnapshotCodec.decode(snapshot);
+
+        Assertions.assertEquals(board.boardName, copy.boardName);
+        Assertions.assertEquals(board.getPhase(), copy.getPhase());
+        Assertions.assertEquals(3, copy.getStep());
+        Assertions.assertEquals(3, copy.getPlayersNumber());
+        Assertions.assertEquals(1, copy.getPlayerNumber(copy.getCurrentPlayer()));
+        for (int i = 0; i < board.getPlayersNumber(); i++) {
+            Player expected = board.getPlayer(i);
+            Player actual = copy.getPlayer(i);
+            Assertions.assertEquals(expected.getName(), actual.getName());
+            Assertions.assertEquals(expected.getPlayerId(), actual.getPlayerId());
+            Assertions.assertEquals(expected.getSpace().cell, actual.getSpace().cell);
+            Assertions.assertSame(actual, actual.getSpace().getPlayer(), "Player should be on its space!");
+            Assertions.assertEquals(expected.getHeading(), actual.getHeading());
+            for (int j = 0; j < Player.NO_CARDS; j++) {
+                Assertions.assertEquals(expected.getCardField(j).getCard().command, actual.getCardField(j).getCard().command);
+                Assertions.assertEquals(expected.getCardField(j).isVisible(), actual.getCardField(j).isVisible());
+            }
+            Assertions.assertEquals(expected.getCardDeck().size(), actual.getCardDeck().size());
+            Assertions.assertEquals(expected.getDiscardPile().size(), actual.getDiscardPile().size());
+            Assertions.assertEquals(expected.getCollectedCheckpoints(), actual.getCollectedCheckpoints());
+        }
+        Assertions.assertEquals(Command.FAST_FORWARD, copy.getPlayer(1).getProgramField(2).getCard().command);
+        Assertions.assertNull(copy.getPlayer(1).getProgramField(1).getCard());
+        Assertions.assertEquals(Command.OPTION_LEFT_RIGHT, copy.getPlayer(1).getCardDeck().peek().command);
+        Assertions.assertEquals(Command.RIGHT, copy.getPlayer(1).getDiscardPile().peek().command);
+    }
+
+    @Test
+    void restoreEarlierState() {
+        ByteBuffer earlier = GameSnapshotCodec.encode(board, null, null);
+        Board copy = GameSnapshotCodec.decode(earlier.duplicate());
+        copy.getPlayer(1).collectedCheckpoints(1);
+        copy.getPlayer(2).collectedCheckpoints(0);
+        copy.setWinner(copy.getPlayer(2));
+
+        GameSnapshotCodec.restore(earlier, copy);
+
+        Assertions.assertEquals(board.getPlayer(1).getCollectedCheckpoints(), copy.getPlayer(1).getCollectedCheckpoints());
+        Assertions.assertTrue(copy.getPlayer(2).getCollectedCheckpoints().isEmpty(),
+                "Checkpoints not in the snapshot should be removed!");
+        Assertions.assertNull(copy.getWinner(), "Winner not in the snapshot should be removed!");
+    }
+
+    @Test
+    void snapshotRepository() throws Exception {
+        Path directory = Files.createTempDirectory("roborally");
+        SnapshotRepository repository = new SnapshotRepository(directory);
+        Assertions.assertTrue(repository.createGameInDB(board));
+        int id = board.getGameId();
+
+        board.getPlayer(0).setHeading(Heading.NORTH);
+        Assertions.assertTrue(repository.updateGameInDB(board));
+
+        SnapshotRepository reopened = new SnapshotRepository(directory);
+        Assertions.assertEquals(1, reopened.getGames().size());
+        Board loaded = reopened.loadGameFromDB(id);
+        Assertions.assertEquals(id, (int) loaded.getGameId());
+        Assertions.assertEquals(Heading.NORTH, loaded.getPlayer(0).getHeading());
+    }
+
+    @Test
+    void logRepository() throws Exception {
+        Path file = Files.createTempDirectory("roborally").resolve("games.log");
+        int id;
+        try (LogRepository repository = new LogRepository(file)) {
+            Assertions.assertTrue(repository.createGameInDB(board));
+            id = board.getGameId();
+            board.getPlayer(0).setHeading(Heading.NORTH);
+            Assertions.assertTrue(repository.updateGameInDB(board));
+        }
+        // an incomplete record at the end of the log is cut off
+        long size = Files.size(file);
+        Files.write(file, new byte[] {0, 0, 1, 0, 7}, StandardOpenOption.APPEND);
+
+        try (LogRepository repository = new LogRepository(file)) {
+            Assertions.assertEquals(size, repository.size(), "Incomplete record should be cut off!");
+            Assertions.assertEquals(1, repository.getGames().size());
+            Board loaded = repository.loadGameFromDB(id);
+            Assertions.assertEquals(Heading.NORTH, loaded.getPlayer(0).getHeading());
+
+            repository.compact();
+            Assertions.assertTrue(repository.size() < size, "Compacted log should be smaller!");
+            Assertions.assertEquals(Heading.NORTH, repository.loadGameFromDB(id).getPlayer(0).getHeading());
+        }
+    }
+
+    @Test
+    void pagedGames() throws Exception {
+        SnapshotRepository repository = new SnapshotRepository(Files.createTempDirectory("roborally"));
+        for (int i = 0; i < 5; i++) {
+            Board game = LoadBoard.loadBoard(i % 2 == 0 ? "defaultboard" : "easyboard");
+            Assertions.assertTrue(repository.createGameInDB(game));
+        }
+
+        Iterator<GameInDB> games = repository.iterateGames(GameFilter.ALL, 2);
+        List<Integer> ids = new ArrayList<>();
+        games.forEachRemaining(game -> ids.add(game.id));
+        Assertions.assertEquals(List.of(5, 4, 3, 2, 1), ids, "Games should be listed newest first!");
+
+        GameFilter filter = new GameFilter("defaultboard", null, null, null);
+        List<GameInDB> page = repository.getGames(filter, 5, 1);
+        Assertions.assertEquals(1, page.size());
+        Assertions.assertEquals(3, page.get(0).id);
+        Assertions.assertEquals(1, repository.getGames(filter, 3, 10).size());
+        Assertions.assertTrue(repository.getGames(new GameFilter(null, Instant.now().plusSeconds(60), null, null), null, 10).isEmpty());
+    }
+
+}
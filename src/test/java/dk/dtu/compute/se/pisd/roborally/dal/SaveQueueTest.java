@@ -0,0 +1,134 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import dk.dtu.compute.se.pisd.roborally.fileaccess.LoadBoard;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.CommandCard;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class SaveQueueTest {
+
+    /**
+     * A repository which records the state of the saved games.
+     */
+    private static class RecordingRepository implements IRepository {
+
+        private int created;
+        private final List<Heading> headings = new ArrayList<>();
+        private final List<Boolean> dirtyFields = new ArrayList<>();
+
+        @Override
+        public boolean createGameInDB(Board game) {
+            created++;
+            game.setGameId(42);
+            return true;
+        }
+
+        @Override
+        public boolean updateGameInDB(Board game) {
+            Player player = game.getPlayer(0);
+            headings.add(player.getHeading());
+            dirtyFields.add(player.getProgramField(0).isDirty());
+            player.markClean();
+            return true;
+        }
+
+        @Override
+        public Board loadGameFromDB(int id) {
+            return null;
+        }
+
+        @Override
+        public List<GameInDB> getGames() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public ArrayList<Integer> getGameIds() {
+            return new ArrayList<>();
+        }
+
+    }
+
+    @Test
+    void savesInBackground() {
+        Board board = LoadBoard.loadBoard("defaultboard");
+        Player player = new Player(board, "red", "Player 1");
+        board.addPlayer(player);
+        player.setSpace(board.getSpace(0, 0));
+        board.setCurrentPlayer(player);
+
+        RecordingRepository repository = new RecordingRepository();
+        try (SaveQueue queue = new SaveQueue(repository, 10000)) {
+            queue.save(board);
+            queue.flush();
+            Assertions.assertEquals(1, repository.created, "Game should have been created once!");
+            Assertions.assertEquals(42, (int) board.getGameId(), "Game should have the id from the repository!");
+
+            player.setHeading(Heading.EAST);
+            queue.save(board);
+            player.setHeading(Heading.WEST);
+            queue.save(board);
+            queue.flush();
+            Assertions.assertEquals(List.of(Heading.WEST), repository.headings, "Only the latest snapshot should be saved!");
+            Assertions.assertEquals(List.of(true), repository.dirtyFields);
+
+            player.getCardDeck().push(CommandCard.of(Command.LEFT));
+            queue.save(board);
+        }
+        Assertions.assertEquals(2, repository.headings.size(), "Queue should be flushed when closed!");
+        Assertions.assertEquals(false, repository.dirtyFields.get(1), "Unchanged field should not be saved again!");
+    }
+
+    @Test
+    void gameIdIsSetByCallbacks() {
+        Board board = LoadBoard.loadBoard("defaultboard");
+        board.addPlayer(new Player(board, "red", "Player 1"));
+
+        List<Runnable> callbacks = new ArrayList<>();
+        try (SaveQueue queue = new SaveQueue(new RecordingRepository(), 10000, callbacks::add)) {
+            queue.save(board);
+            queue.flush();
+        }
+        Assertions.assertNull(board.getGameId(), "Worker should not set the id itself!");
+        Assertions.assertEquals(1, callbacks.size());
+        callbacks.get(0).run();
+        Assertions.assertEquals(42, (int) board.getGameId(), "Callback should set the id from the repository!");
+    }
+
+    @Test
+    void failedSaveIsReportedAndRetried() {
+        Board board = LoadBoard.loadBoard("defaultboard");
+        board.addPlayer(new Player(board, "red", "Player 1"));
+
+        RecordingRepository repository = new RecordingRepository() {
+            private boolean failed;
+
+            @Override
+            public boolean createGameInDB(Board game) {
+                if (!failed) {
+                    failed = true;
+                    throw new RepositoryException("No connection to the database", null);
+                }
+                return super.createGameInDB(game);
+            }
+        };
+        List<RuntimeException> failures = new ArrayList<>();
+        try (SaveQueue queue = new SaveQueue(repository, 0)) {
+            queue.setFailureListener((game, failure) -> failures.add(failure));
+            queue.save(board);
+            queue.flush();
+            queue.flush();
+        }
+        Assertions.assertEquals(1, failures.size(), "Failure should be reported once!");
+        Assertions.assertEquals(1, repository.created, "Failed game should be created again!");
+        Assertions.assertEquals(42, (int) board.getGameId());
+    }
+
+}
@@ -0,0 +1,60 @@
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import dk.dtu.compute.se.pisd.roborally.controller.CheckPointFieldAction;
+import dk.dtu.compute.se.pisd.roborally.controller.ConveyorBelt;
+import dk.dtu.compute.se.pisd.roborally.controller.FieldAction;
+import dk.dtu.compute.se.pisd.roborally.controller.GearsFieldAction;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class FieldActionAdapterTest {
+
+    private final Gson gson = new GsonBuilder().
+            registerTypeHierarchyAdapter(FieldAction.class, new FieldActionAdapter()).
+            create();
+
+    @Test
+    void roundTrip() {
+        ConveyorBelt belt = new ConveyorBelt();
+        belt.setHeading(Heading.WEST);
+        String json = gson.toJson(belt, FieldAction.class);
+        Assertions.assertEquals("{\"type\":\"conveyorBelt\",\"heading\":\"WEST\"}", json);
+
+        FieldAction action = gson.fromJson(json, FieldAction.class);
+        Assertions.assertTrue(action instanceof ConveyorBelt);
+        Assertions.assertEquals(Heading.WEST, ((ConveyorBelt) action).getHeading());
+    }
+
+    @Test
+    void copy() {
+        GearsFieldAction gears = new GearsFieldAction();
+        gears.setHeading(Heading.EAST);
+        FieldAction copy = FieldActionAdapter.copy(gears);
+        Assertions.assertNotSame(gears, copy);
+        Assertions.assertEquals(Heading.EAST, ((GearsFieldAction) copy).getHeading());
+
+        CheckPointFieldAction checkpoint = new CheckPointFieldAction();
+        checkpoint.setCheckPointId(3);
+        Assertions.assertEquals(3, ((CheckPointFieldAction) FieldActionAdapter.copy(checkpoint)).getCheckPointFieldId());
+    }
+
+    @Test
+    void legacyLayout() {
+        FieldAction action = gson.fromJson("{\"CLASSNAME\": \"dk.dtu.compute.se.pisd.roborally.controller.CheckPointFieldAction\"," +
+                " \"INSTANCE\": {\"checkPointFieldId\": 2}}", FieldAction.class);
+        Assertions.assertTrue(action instanceof CheckPointFieldAction);
+        Assertions.assertEquals(2, ((CheckPointFieldAction) action).getCheckPointFieldId());
+
+        // the type does not need to be the first property
+        action = gson.fromJson("{\"heading\": \"SOUTH\", \"type\": \"gears\"}", FieldAction.class);
+        Assertions.assertEquals(Heading.SOUTH, ((GearsFieldAction) action).getHeading());
+
+        Assertions.assertThrows(JsonParseException.class,
+                () -> gson.fromJson("{\"CLASSNAME\": \"java.lang.Runtime\"}", FieldAction.class));
+    }
+
+}
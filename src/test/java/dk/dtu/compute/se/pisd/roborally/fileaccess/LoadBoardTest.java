@@ -0,0 +1,100 @@
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import dk.dtu.compute.se.pisd.roborally.controller.ConveyorBelt;
+import dk.dtu.compute.se.pisd.roborally.controller.FieldAction;
+import dk.dtu.compute.se.pisd.roborally.controller.GearsFieldAction;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Heading;
+import dk.dtu.compute.se.pisd.roborally.model.Topology;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class LoadBoardTest {
+
+    @Test
+    void writeAndReadLargeBoard() throws Exception {
+        Board board = new Board(500, 500, "arena", Topology.BOUNDED);
+        for (int i = 0; i < 500; i++) {
+            ConveyorBelt belt = new ConveyorBelt();
+            belt.setHeading(Heading.SOUTH);
+            board.getSpace(i, i).addAction(belt);
+            board.getSpace(i, 499 - i).addWall(Heading.EAST);
+        }
+
+        StringWriter json = new StringWriter();
+        LoadBoard.writeBoard(board, json);
+        Board read = LoadBoard.readBoard(new StringReader(json.toString()), "arena");
+
+        Assertions.assertEquals(500, read.width);
+        Assertions.assertEquals(500, read.height);
+        Assertions.assertEquals(Topology.BOUNDED, read.topology);
+        Assertions.assertEquals(List.of(Heading.EAST), read.getSpace(3, 496).getWalls());
+        ConveyorBelt belt = (ConveyorBelt) read.getSpace(42, 42).getActions().get(0);
+        Assertions.assertEquals(Heading.SOUTH, belt.getHeading());
+    }
+
+    @Test
+    void sizeAfterSpaces() throws Exception {
+        String json = "{\"spaces\": [{\"x\": 1, \"y\": 2, \"actions\": [{\"type\": \"gears\", \"heading\": \"EAST\"}]}]," +
+                " \"width\": 3, \"height\": 4, \"topology\": \"BOUNDED\"}";
+        Board board = LoadBoard.readBoard(new StringReader(json), "small");
+
+        Assertions.assertEquals(3, board.width);
+        Assertions.assertEquals(Topology.BOUNDED, board.topology);
+        Assertions.assertTrue(board.getSpace(1, 2).getActions().get(0) instanceof GearsFieldAction);
+    }
+
+    @Test
+    void boardsFromTemplateAreIndependent() {
+        Board first = LoadBoard.loadBoard("defaultboard");
+        Board second = LoadBoard.loadBoard("defaultboard");
+
+        int actions = 0;
+        for (int x = 0; x < first.width; x++) {
+            for (int y = 0; y < first.height; y++) {
+                List<FieldAction> firstActions = first.getSpace(x, y).getActions();
+                List<FieldAction> secondActions = second.getSpace(x, y).getActions();
+                Assertions.assertEquals(firstActions.size(), secondActions.size());
+                for (int i = 0; i < firstActions.size(); i++) {
+                    Assertions.assertSame(firstActions.get(i).getClass(), secondActions.get(i).getClass());
+                    Assertions.assertNotSame(firstActions.get(i), secondActions.get(i),
+                            "Boards should not share field actions!");
+                    actions++;
+                }
+            }
+        }
+        Assertions.assertTrue(actions > 0, "Default board should have field actions!");
+    }
+
+    @Test
+    void evictedBoardIsReadAgain() throws Exception {
+        // a board file on the class path of the tests, which is changed by the test
+        Path folder = Path.of(LoadBoardTest.class.getResource("/").toURI()).resolve("boards");
+        Path file = folder.resolve("cachetest.json");
+        Files.createDirectories(folder);
+        Files.deleteIfExists(file);
+        LoadBoard.evictBoard("cachetest");
+        try {
+            Assertions.assertEquals(8, LoadBoard.loadBoard("cachetest").width, "Missing board should be empty!");
+
+            Files.writeString(file, "{\"width\": 3, \"height\": 4, \"spaces\": []}");
+            Assertions.assertEquals(3, LoadBoard.loadBoard("cachetest").width, "Missing board should not be cached!");
+
+            Files.writeString(file, "{\"width\": 5, \"height\": 4, \"spaces\": []}");
+            Assertions.assertEquals(3, LoadBoard.loadBoard("cachetest").width, "Board should be cached!");
+
+            LoadBoard.evictBoard("cachetest");
+            Assertions.assertEquals(5, LoadBoard.loadBoard("cachetest").width, "Evicted board should be read again!");
+        } finally {
+            Files.deleteIfExists(file);
+            LoadBoard.evictBoard("cachetest");
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+package dk.dtu.compute.se.pisd.roborally.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BoardTest {
+
+    private Board board;
+
+    @BeforeEach
+    void setUp() {
+        board = new Board(8, 6);
+    }
+
+    @Test
+    void spacesAreViewsOnTheCore() {
+        BoardCore core = board.getCore();
+        Space space = board.getSpace(3, 4);
+
+        Assertions.assertSame(space, board.getSpace(3, 4), "Space (3,4) should always be the same object!");
+        Assertions.assertSame(space, board.getSpace(space.cell), "Space of cell " + space.cell + " should be space (3,4)!");
+        Assertions.assertEquals(3, core.x(space.cell));
+        Assertions.assertEquals(4, core.y(space.cell));
+
+        space.addWall(Heading.NORTH);
+        space.setHasGear(true);
+        Assertions.assertTrue(core.hasWall(space.cell, Heading.NORTH), "Cell should have a wall to the NORTH!");
+        Assertions.assertFalse(core.hasWall(space.cell, Heading.SOUTH), "Cell should not have a wall to the SOUTH!");
+        Assertions.assertTrue(core.hasFlag(space.cell, BoardCore.GEAR), "Cell should have a gear!");
+        Assertions.assertEquals(1, space.getWalls().size(), "Space (3,4) should have one wall!");
+    }
+
+    @Test
+    void occupantFollowsPlayer() {
+        BoardCore core = board.getCore();
+        Player player = new Player(board, null, "Player 0");
+        board.addPlayer(player);
+        Space from = board.getSpace(1, 1);
+        Space to = board.getSpace(2, 1);
+
+        player.setSpace(from);
+        Assertions.assertEquals(0, core.getOccupant(from.cell), "Player 0 should be on cell " + from.cell + "!");
+
+        player.setSpace(to);
+        Assertions.assertEquals(BoardCore.NO_PLAYER, core.getOccupant(from.cell), "Cell " + from.cell + " should be empty!");
+        Assertions.assertEquals(player, to.getPlayer(), "Player 0 should be on space (2,1)!");
+        Assertions.assertEquals(to, player.getSpace(), "Player 0 should be on space (2,1)!");
+    }
+
+    @Test
+    void playerPlacedBeforeAdded() {
+        Player player = new Player(board, null, "Player 0");
+        Space space = board.getSpace(5, 5);
+        player.setSpace(space);
+        board.addPlayer(player);
+
+        Assertions.assertEquals(player, space.getPlayer(), "Player 0 should be on space (5,5)!");
+    }
+
+    @Test
+    void wallChecks() {
+        Space space = board.getSpace(2, 2);
+        space.addWall(Heading.EAST);
+        Player player = new Player(board, null, "Player 0");
+
+        for (Heading heading : Heading.values()) {
+            player.setHeading(heading);
+            Assertions.assertEquals(heading == Heading.EAST, space.hasCurrentWall(player), "Wall check for heading " + heading + " is wrong!");
+            Assertions.assertEquals(heading == Heading.WEST, space.hasTargetWall(player), "Target wall check for heading " + heading + " is wrong!");
+        }
+        Assertions.assertEquals(Heading.SOUTH, Heading.NORTH.opposite());
+        Assertions.assertEquals(Heading.WEST, Heading.EAST.opposite());
+    }
+
+    @Test
+    void neighboursWrapAround() {
+        Space corner = board.getSpace(0, 0);
+
+        Assertions.assertEquals(board.getSpace(1, 0), board.getNeighbour(corner, Heading.EAST));
+        Assertions.assertEquals(board.getSpace(0, 1), board.getNeighbour(corner, Heading.SOUTH));
+        Assertions.assertEquals(board.getSpace(7, 0), board.getNeighbour(corner, Heading.WEST));
+        Assertions.assertEquals(board.getSpace(0, 5), board.getNeighbour(corner, Heading.NORTH));
+    }
+
+    @Test
+    void neighboursBounded() {
+        Board bounded = new Board(8, 6, "bounded", Topology.BOUNDED);
+        Space corner = bounded.getSpace(7, 5);
+
+        Assertions.assertEquals(bounded.getSpace(6, 5), bounded.getNeighbour(corner, Heading.WEST));
+        Assertions.assertEquals(bounded.getSpace(7, 4), bounded.getNeighbour(corner, Heading.NORTH));
+        Assertions.assertNull(bounded.getNeighbour(corner, Heading.EAST), "Space (7,5) should not have a neighbour to the EAST!");
+        Assertions.assertNull(bounded.getNeighbour(corner, Heading.SOUTH), "Space (7,5) should not have a neighbour to the SOUTH!");
+    }
+    @Test
+    void dirtyTracking() {
+        Player player = new Player(board, null, "Player 0");
+        board.addPlayer(player);
+        player.setSpace(board.getSpace(1, 1));
+        Assertions.assertTrue(player.isDirty(), "New player should be dirty!");
+
+        player.markClean();
+        Assertions.assertFalse(player.isDirty());
+        Assertions.assertFalse(player.isDeckDirty());
+        Assertions.assertFalse(player.getProgramField(0).isDirty());
+
+        player.setHeading(player.getHeading().next());
+        player.getProgramField(0).setCard(CommandCard.of(Command.LEFT));
+        player.getCardDeck().push(CommandCard.of(Command.FORWARD));
+        Assertions.assertTrue(player.isDirty(), "Player should be dirty after turning!");
+        Assertions.assertTrue(player.getProgramField(0).isDirty(), "Field should be dirty after setting a card!");
+        Assertions.assertFalse(player.getProgramField(1).isDirty(), "Unchanged field should not be dirty!");
+        Assertions.assertTrue(player.isDeckDirty(), "Deck should be dirty after pushing a card!");
+    }
+
+}
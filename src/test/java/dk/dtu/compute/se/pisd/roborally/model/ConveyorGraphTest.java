@@ -0,0 +1,98 @@
+package dk.dtu.compute.se.pisd.roborally.model;
+
+import dk.dtu.compute.se.pisd.roborally.controller.ConveyorBelt;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ConveyorGraphTest {
+
+    private Board board;
+
+    @BeforeEach
+    void setUp() {
+        board = new Board(8, 8, "test", Topology.BOUNDED);
+    }
+
+    private void belt(int x, int y, Heading heading) {
+        ConveyorBelt belt = new ConveyorBelt();
+        belt.setHeading(heading);
+        board.getSpace(x, y).addAction(belt);
+    }
+
+    private void robots(int... xys) {
+        for (int i = 0; i < xys.length; i += 2) {
+            Player player = new Player(board, null, "Player " + i / 2);
+            board.addPlayer(player);
+            player.setSpace(board.getSpace(xys[i], xys[i + 1]));
+        }
+    }
+
+    /**
+     * Resolves the moves of all robots and returns their cells after the move.
+     */
+    private int[] move() {
+        int robots = board.getPlayersNumber();
+        int[] cells = new int[robots];
+        int[] targets = new int[robots];
+        for (int i = 0; i < robots; i++) {
+            cells[i] = board.getPlayer(i).getSpace().cell;
+        }
+        board.getConveyorGraph().resolveMoves(cells, robots, targets);
+        return targets;
+    }
+
+    private int cell(int x, int y) {
+        return board.getCore().cell(x, y);
+    }
+
+    @Test
+    void chainMovesTogether() {
+        for (int x = 0; x < 4; x++) {
+            belt(x, 0, Heading.EAST);
+        }
+        robots(0, 0, 1, 0, 2, 0);
+        Assertions.assertArrayEquals(new int[] {cell(1, 0), cell(2, 0), cell(3, 0)}, move());
+    }
+
+    @Test
+    void blockedByRobotOffTheBelt() {
+        belt(0, 0, Heading.EAST);
+        belt(1, 0, Heading.EAST);
+        robots(0, 0, 1, 0, 2, 0);
+        Assertions.assertArrayEquals(new int[] {cell(0, 0), cell(1, 0), cell(2, 0)}, move());
+    }
+
+    @Test
+    void blockedByWall() {
+        belt(0, 0, Heading.EAST);
+        belt(1, 0, Heading.EAST);
+        board.getSpace(2, 0).addWall(Heading.WEST);
+        robots(0, 0, 1, 0);
+        Assertions.assertEquals(BoardCore.NO_CELL, board.getConveyorGraph().successor(cell(1, 0)));
+        Assertions.assertArrayEquals(new int[] {cell(0, 0), cell(1, 0)}, move());
+    }
+
+    @Test
+    void conflictsAndSwaps() {
+        // two belts merging into the same cell
+        belt(0, 0, Heading.EAST);
+        belt(2, 0, Heading.WEST);
+        // two belts facing each other
+        belt(4, 0, Heading.EAST);
+        belt(5, 0, Heading.WEST);
+        robots(0, 0, 2, 0, 4, 0, 5, 0);
+        Assertions.assertArrayEquals(new int[] {cell(0, 0), cell(2, 0), cell(4, 0), cell(5, 0)}, move());
+    }
+
+    @Test
+    void fullCycleRotates() {
+        belt(0, 0, Heading.EAST);
+        belt(1, 0, Heading.SOUTH);
+        belt(1, 1, Heading.WEST);
+        belt(0, 1, Heading.NORTH);
+        robots(0, 0, 1, 0, 1, 1, 0, 1);
+        Assertions.assertArrayEquals(new int[] {cell(1, 0), cell(1, 1), cell(0, 1), cell(0, 0)}, move());
+    }
+
+}
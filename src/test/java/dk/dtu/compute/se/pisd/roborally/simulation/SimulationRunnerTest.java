@@ -0,0 +1,86 @@
+package dk.dtu.compute.se.pisd.roborally.simulation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class SimulationRunnerTest {
+
+    private static List<GameSetup> seededSetups() {
+        List<GameSetup> setups = new ArrayList<>();
+        long seed = 1;
+        for (String boardName : List.of("defaultboard", "easyboard")) {
+            for (int noOfPlayers = 2; noOfPlayers <= 4; noOfPlayers++) {
+                for (int i = 0; i < 2; i++) {
+                    setups.add(new GameSetup(boardName, noOfPlayers, ProgrammingStrategy.IN_ORDER,
+                            HeadlessGame.DEFAULT_MAX_ROUNDS, seed++));
+                }
+            }
+        }
+        return setups;
+    }
+
+    @Test
+    void concurrentGamesMatchSequentialGames() {
+        List<GameSetup> setups = seededSetups();
+        List<SimulationResult> concurrent;
+        try (SimulationRunner runner = new SimulationRunner(4)) {
+            concurrent = runner.run(setups);
+        }
+
+        Assertions.assertEquals(setups.size(), concurrent.size());
+        for (int i = 0; i < setups.size(); i++) {
+            SimulationResult expected = SimulationRunner.runGame(setups.get(i));
+            SimulationResult actual = concurrent.get(i);
+            Assertions.assertSame(setups.get(i), actual.setup, "Results should be in the order of the setups!");
+            Assertions.assertEquals(expected.seed, actual.seed);
+            Assertions.assertEquals(expected.winner, actual.winner, "Game " + i + " should have the same winner!");
+            Assertions.assertEquals(expected.rounds, actual.rounds, "Game " + i + " should take the same rounds!");
+            Assertions.assertEquals(expected.timeline.toString(), actual.timeline.toString(),
+                    "Game " + i + " should collect the same checkpoints at the same time!");
+        }
+    }
+
+    @Test
+    void resultOfGame() {
+        SimulationResult result = SimulationRunner.runGame(
+                new GameSetup("defaultboard", 3, ProgrammingStrategy.IN_ORDER, HeadlessGame.DEFAULT_MAX_ROUNDS, 7L));
+
+        Assertions.assertTrue(result.hasWinner(), "Game should have a winner!");
+        Assertions.assertEquals(7L, result.seed);
+        int collected = 0;
+        int round = 0;
+        for (SimulationResult.CheckpointReached reached : result.timeline) {
+            Assertions.assertTrue(reached.round >= round && reached.round <= result.rounds,
+                    "Timeline should be ordered by rounds!");
+            round = reached.round;
+            if (reached.player == result.winner) {
+                Assertions.assertEquals(collected++, reached.checkpoint, "Checkpoints should be collected in order!");
+            }
+        }
+        Assertions.assertTrue(collected > 0, "Winner should have collected checkpoints!");
+        Assertions.assertEquals(result.rounds, round, "Winner should collect the last checkpoint in the last round!");
+    }
+
+    @Test
+    void summaryOfResults() {
+        GameSetup twoPlayers = new GameSetup("defaultboard", 2);
+        GameSetup threePlayers = new GameSetup("defaultboard", 3);
+        List<SimulationResult> results = List.of(
+                new SimulationResult(twoPlayers, 1, 1, 10, List.of()),
+                new SimulationResult(threePlayers, 2, 2, 20, List.of()),
+                new SimulationResult(threePlayers, 3, 1, 30, List.of()),
+                new SimulationResult(threePlayers, 4, -1, 40, List.of()));
+
+        SimulationSummary summary = SimulationSummary.of(results);
+
+        Assertions.assertEquals(4, summary.games);
+        Assertions.assertEquals(3, summary.gamesWithWinner);
+        Assertions.assertArrayEquals(new int[] {0, 2, 1}, summary.winsPerPlayer);
+        Assertions.assertEquals(100, summary.totalRounds);
+        Assertions.assertEquals(25.0, summary.getAverageRounds());
+    }
+
+}